@@ -0,0 +1,1130 @@
+package project3;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An mdeque that changes its internal representation to suit the way it is
+ * used. It provides the same operations, with the same semantics, as
+ * {@link MDeque}.
+ *
+ * Three representations are available:
+ * - an inline array of at most {@value #INLINE_CAPACITY} elements, held by the
+ * mdeque itself and used while the mdeque is small;
+ * - a split representation, in which the front half and back half are each held
+ * in a ring buffer and meet at the middle, used for large mdeques that are
+ * accessed at their front, middle or back or traversed by iterators; and
+ * - the doubly-linked list of {@link MDeque}, used when positional removal
+ * ({@link #removeRange(int, int)}) dominates, since the split representation
+ * removes a range by rebuilding both halves.
+ *
+ * The mdeque counts the operations at each point of access, the traversals and
+ * the range removals performed. Every push, pop, range removal and new iterator
+ * is a potential migration point: a migration copies the elements into a new
+ * representation and leaves the old one unchanged, so outstanding iterators
+ * remain valid until the next mutation, just as they would without the
+ * migration. Peeks are counted but never migrate, so they run in constant time
+ * as they do in {@link MDeque}. After every {@value #EPOCH_LENGTH} units of
+ * work, where a push or pop is one unit and a traversal or a rebuild is one
+ * unit per element, the mdeque chooses the best representation for the
+ * observed mix and current size. Migration takes linear time and is only
+ * performed when at least as much work has been done since the previous
+ * migration as there are elements, so its cost is amortized constant time per
+ * unit of work.
+ *
+ * The remove operations all return null values if the mdeque is empty. The
+ * structure does not allow null as an element.
+ *
+ * @param <E> the type of elements held in this mdeque
+ *
+ * @author Ishan Pranav
+ */
+public class AdaptiveMDeque<E> implements Iterable<E> {
+
+    /**
+     * Identifies a representation of an adaptive mdeque.
+     *
+     * @author Ishan Pranav
+     */
+    enum Representation {
+        /** An array of at most {@value AdaptiveMDeque#INLINE_CAPACITY} elements. */
+        INLINE,
+
+        /** Two ring buffers that hold the front half and the back half. */
+        SPLIT,
+
+        /** The doubly-linked list of {@link MDeque}. */
+        LINKED
+    }
+
+    /**
+     * Provides a growable circular array with constant-time access by position.
+     *
+     * @author Ishan Pranav
+     */
+    private static final class Ring {
+        private Object[] elements = new Object[RING_CAPACITY];
+        private int head;
+        private int count;
+
+        /**
+         * Returns the number of elements in the ring.
+         *
+         * @return the number of elements
+         */
+        public int size() {
+            return count;
+        }
+
+        /**
+         * Retrieves the element at the specified position.
+         *
+         * Precondition: the position is between 0 and the size, exclusive.
+         *
+         * @param index the zero-based position
+         * @return the element
+         */
+        public Object get(int index) {
+            return elements[(head + index) & (elements.length - 1)];
+        }
+
+        /**
+         * Retrieves the first element.
+         *
+         * @return the first element, or {@code null} if the ring is empty
+         */
+        public Object peekFirst() {
+            return elements[head];
+        }
+
+        /**
+         * Retrieves the last element.
+         *
+         * @return the last element, or {@code null} if the ring is empty
+         */
+        public Object peekLast() {
+            return elements[(head + count - 1) & (elements.length - 1)];
+        }
+
+        /**
+         * Inserts an element before the first element.
+         *
+         * @param item the element to add
+         */
+        public void addFirst(Object item) {
+            if (count == elements.length) {
+                grow();
+            }
+
+            head = (head - 1) & (elements.length - 1);
+            elements[head] = item;
+            count++;
+        }
+
+        /**
+         * Inserts an element after the last element.
+         *
+         * @param item the element to add
+         */
+        public void addLast(Object item) {
+            if (count == elements.length) {
+                grow();
+            }
+
+            elements[(head + count) & (elements.length - 1)] = item;
+            count++;
+        }
+
+        /**
+         * Retrieves and removes the first element.
+         *
+         * @return the first element, or {@code null} if the ring is empty
+         */
+        public Object pollFirst() {
+            final Object result = elements[head];
+
+            if (result != null) {
+                elements[head] = null;
+                head = (head + 1) & (elements.length - 1);
+                count--;
+            }
+
+            return result;
+        }
+
+        /**
+         * Retrieves and removes the last element.
+         *
+         * @return the last element, or {@code null} if the ring is empty
+         */
+        public Object pollLast() {
+            final int index = (head + count - 1) & (elements.length - 1);
+            final Object result = elements[index];
+
+            if (result != null) {
+                elements[index] = null;
+                count--;
+            }
+
+            return result;
+        }
+
+        /** Doubles the capacity, moving the first element to the start of the array. */
+        private void grow() {
+            final Object[] larger = new Object[elements.length * 2];
+
+            for (int i = 0; i < count; i++) {
+                larger[i] = get(i);
+            }
+
+            elements = larger;
+            head = 0;
+        }
+    }
+
+    /**
+     * Provides a representation that stores the front half and back half of the
+     * elements in two ring buffers that meet at the middle. The front half holds
+     * {@code size / 2} elements, so the middle element is the first element of the
+     * back half.
+     *
+     * @author Ishan Pranav
+     */
+    private final class SplitLayout implements Iterable<E> {
+        private Ring front = new Ring();
+        private Ring back = new Ring();
+
+        /**
+         * Returns the number of elements.
+         *
+         * @return the number of elements
+         */
+        public int size() {
+            return front.size() + back.size();
+        }
+
+        /**
+         * Retrieves the first element.
+         *
+         * @return the front, or {@code null} if empty
+         */
+        @SuppressWarnings("unchecked")
+        public E peekFront() {
+            if (front.size() == 0) {
+                return (E) back.peekFirst();
+            } else {
+                return (E) front.peekFirst();
+            }
+        }
+
+        /**
+         * Retrieves the middle element.
+         *
+         * @return the middle, or {@code null} if empty
+         */
+        @SuppressWarnings("unchecked")
+        public E peekMiddle() {
+            return (E) back.peekFirst();
+        }
+
+        /**
+         * Retrieves the back element.
+         *
+         * @return the back, or {@code null} if empty
+         */
+        @SuppressWarnings("unchecked")
+        public E peekBack() {
+            return (E) back.peekLast();
+        }
+
+        /**
+         * Inserts an element at the front.
+         *
+         * @param item the non-null element to add
+         */
+        public void pushFront(E item) {
+            front.addFirst(item);
+            balance();
+        }
+
+        /**
+         * Inserts an element in the middle.
+         *
+         * @param item the non-null element to add
+         */
+        public void pushMiddle(E item) {
+            if (size() % 2 == 1) {
+                // When adding to an odd-length list, the new element follows the
+                // current middle
+
+                front.addLast(back.pollFirst());
+            }
+
+            back.addFirst(item);
+            balance();
+        }
+
+        /**
+         * Inserts an element at the back.
+         *
+         * @param item the non-null element to add
+         */
+        public void pushBack(E item) {
+            back.addLast(item);
+            balance();
+        }
+
+        /**
+         * Retrieves and removes the first element.
+         *
+         * @return the front, or {@code null} if empty
+         */
+        @SuppressWarnings("unchecked")
+        public E popFront() {
+            final Object result;
+
+            if (front.size() == 0) {
+                result = back.pollFirst();
+            } else {
+                result = front.pollFirst();
+            }
+
+            balance();
+
+            return (E) result;
+        }
+
+        /**
+         * Retrieves and removes the middle element.
+         *
+         * @return the middle, or {@code null} if empty
+         */
+        @SuppressWarnings("unchecked")
+        public E popMiddle() {
+            final Object result = back.pollFirst();
+
+            balance();
+
+            return (E) result;
+        }
+
+        /**
+         * Retrieves and removes the back element.
+         *
+         * @return the back, or {@code null} if empty
+         */
+        @SuppressWarnings("unchecked")
+        public E popBack() {
+            final Object result = back.pollLast();
+
+            balance();
+
+            return (E) result;
+        }
+
+        /**
+         * Removes the elements in a range of positions by rebuilding both halves.
+         *
+         * @param fromIndex the position of the first element to remove
+         * @param toIndex   the position after the last element to remove
+         */
+        public void removeRange(int fromIndex, int toIndex) {
+            final int size = size();
+            final Ring survivors = new Ring();
+
+            for (int i = 0; i < size; i++) {
+                if (i < fromIndex || i >= toIndex) {
+                    survivors.addLast(get(i));
+                }
+            }
+
+            front = new Ring();
+            back = survivors;
+
+            balance();
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new PositionalIterator(size(), true) {
+                @Override
+                protected E get(int index) {
+                    return SplitLayout.this.get(index);
+                }
+            };
+        }
+
+        /**
+         * Returns an iterator from back to front.
+         *
+         * @return an iterator over the elements in reverse sequence
+         */
+        public Iterator<E> reverseIterator() {
+            return new PositionalIterator(size(), false) {
+                @Override
+                protected E get(int index) {
+                    return SplitLayout.this.get(index);
+                }
+            };
+        }
+
+        /**
+         * Retrieves the element at the specified position.
+         *
+         * @param index the zero-based position
+         * @return the element
+         */
+        @SuppressWarnings("unchecked")
+        private E get(int index) {
+            final int frontSize = front.size();
+
+            if (index < frontSize) {
+                return (E) front.get(index);
+            } else {
+                return (E) back.get(index - frontSize);
+            }
+        }
+
+        /** Moves elements between the halves until the front half holds exactly half. */
+        private void balance() {
+            final int target = size() / 2;
+
+            while (front.size() > target) {
+                back.addFirst(front.pollLast());
+            }
+
+            while (front.size() < target) {
+                front.addLast(back.pollFirst());
+            }
+        }
+    }
+
+    /**
+     * Provides an iterator over a representation with constant-time access by
+     * position that detects modification of the adaptive mdeque.
+     *
+     * @author Ishan Pranav
+     */
+    private abstract class PositionalIterator implements Iterator<E> {
+        private final int expectedVersion = version;
+        private final int step;
+        private final int end;
+
+        private int index;
+
+        /**
+         * Initializes a new instance of the {@link PositionalIterator} class.
+         *
+         * @param size    the number of elements
+         * @param forward {@code true} to iterate from front to back, or
+         *                {@code false} to iterate from back to front
+         */
+        public PositionalIterator(int size, boolean forward) {
+            if (forward) {
+                step = 1;
+                index = 0;
+                end = size;
+            } else {
+                step = -1;
+                index = size - 1;
+                end = -1;
+            }
+        }
+
+        /**
+         * Returns {@code true} if the iteration has more elements.
+         *
+         * @return {@code true} if the iteration has more elements.
+         */
+        @Override
+        public boolean hasNext() {
+            return index != end;
+        }
+
+        /**
+         * Returns the next element in the iteration.
+         *
+         * @throws ConcurrentModificationException if the mdeque has been modified
+         *                                         concurrently with the iteration
+         * @throws NoSuchElementException          if the iteration has no more elements
+         */
+        @Override
+        public E next() {
+            if (version != expectedVersion) {
+                throw new ConcurrentModificationException("Collection was modified during iteration.");
+            }
+
+            if (index == end) {
+                throw new NoSuchElementException("Collection has no more elements.");
+            }
+
+            final E result = get(index);
+
+            index += step;
+
+            return result;
+        }
+
+        /**
+         * Retrieves the element at the specified position.
+         *
+         * @param index the zero-based position
+         * @return the element
+         */
+        protected abstract E get(int index);
+    }
+
+    /**
+     * Provides an iterator that detects modification of the adaptive mdeque
+     * through a representation that is not otherwise aware of it.
+     *
+     * @author Ishan Pranav
+     */
+    private class AdaptiveIterator implements Iterator<E> {
+        private final int expectedVersion = version;
+        private final Iterator<E> iterator;
+
+        /**
+         * Initializes a new instance of the {@link AdaptiveIterator} class.
+         *
+         * @param iterator the iterator over the current representation
+         */
+        public AdaptiveIterator(Iterator<E> iterator) {
+            this.iterator = iterator;
+        }
+
+        /**
+         * Returns {@code true} if the iteration has more elements.
+         *
+         * @return {@code true} if the iteration has more elements.
+         */
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        /**
+         * Returns the next element in the iteration.
+         *
+         * @throws ConcurrentModificationException if the mdeque has been modified
+         *                                         concurrently with the iteration
+         * @throws NoSuchElementException          if the iteration has no more elements
+         */
+        @Override
+        public E next() {
+            if (version != expectedVersion) {
+                throw new ConcurrentModificationException("Collection was modified during iteration.");
+            }
+
+            return iterator.next();
+        }
+    }
+
+    private static final int INLINE_CAPACITY = 16;
+    private static final int INLINE_THRESHOLD = 8;
+    private static final int RING_CAPACITY = 16;
+    private static final int EPOCH_LENGTH = 256;
+
+    private final Representation fixed;
+
+    // The inline elements, used while both other representations are null
+
+    private Object[] values = new Object[INLINE_CAPACITY];
+    private int count;
+    private SplitLayout split;
+    private MDeque<E> linked;
+
+    private int version;
+    private int frontOperations;
+    private int middleOperations;
+    private int backOperations;
+    private int traversals;
+    private int rangeRemovals;
+    private long workSinceMigration;
+    private long epochRemaining = EPOCH_LENGTH;
+
+    /**
+     * Creates an empty mdeque object.
+     */
+    public AdaptiveMDeque() {
+        this(null);
+    }
+
+    /**
+     * Creates an empty mdeque object that keeps the specified representation,
+     * for comparison with the adaptive choice. An inline mdeque still moves to the
+     * split representation when it outgrows the inline array.
+     *
+     * @param fixed the representation to keep, or {@code null} to adapt
+     */
+    AdaptiveMDeque(Representation fixed) {
+        this.fixed = fixed;
+
+        if (fixed != null && fixed != Representation.INLINE) {
+            migrate(fixed);
+        }
+    }
+
+    /**
+     * Returns the number of elements in this mdeque.
+     *
+     * @return the number of elements in this mdeque.
+     */
+    public int size() {
+        if (split != null) {
+            return split.size();
+        } else if (linked != null) {
+            return linked.size();
+        } else {
+            return count;
+        }
+    }
+
+    /**
+     * Retrieves the first element of this mdeque.
+     *
+     * @return the front of this mdeque, or {@code null} if this mdeque is empty
+     */
+    public E peekFront() {
+        frontOperations++;
+
+        if (split != null) {
+            return split.peekFront();
+        } else if (linked != null) {
+            return linked.peekFront();
+        } else {
+            return get(0);
+        }
+    }
+
+    /**
+     * Retrieves the middle element of this mdeque.
+     *
+     * @return the middle of this mdeque, or {@code null} if this mdeque is empty
+     */
+    public E peekMiddle() {
+        middleOperations++;
+
+        if (split != null) {
+            return split.peekMiddle();
+        } else if (linked != null) {
+            return linked.peekMiddle();
+        } else {
+            return get(count / 2);
+        }
+    }
+
+    /**
+     * Retrieves the back element of this mdeque.
+     *
+     * @return the back of this mdeque, or {@code null} if this mdeque is empty
+     */
+    public E peekBack() {
+        backOperations++;
+
+        if (split != null) {
+            return split.peekBack();
+        } else if (linked != null) {
+            return linked.peekBack();
+        } else {
+            return get(count - 1);
+        }
+    }
+
+    /**
+     * Inserts the specified item at the front of this mdeque.
+     *
+     * @param item the element to add
+     * @throws IllegalArgumentException if {@code item} is {@code null}
+     */
+    public void pushFront(E item) {
+        checkItem(item);
+
+        frontOperations++;
+
+        mutate(1);
+
+        if (split != null) {
+            split.pushFront(item);
+        } else if (linked != null) {
+            linked.pushFront(item);
+        } else {
+            insert(0, item);
+        }
+    }
+
+    /**
+     * Inserts the specified item in the middle of this mdeque.
+     *
+     * @param item the element to add
+     * @throws IllegalArgumentException if {@code item} is {@code null}
+     */
+    public void pushMiddle(E item) {
+        checkItem(item);
+
+        middleOperations++;
+
+        mutate(1);
+
+        if (split != null) {
+            split.pushMiddle(item);
+        } else if (linked != null) {
+            linked.pushMiddle(item);
+        } else {
+            insert((count + 1) / 2, item);
+        }
+    }
+
+    /**
+     * Inserts the specified item at the back of this mdeque.
+     *
+     * @param item the element to add
+     * @throws IllegalArgumentException if {@code item} is {@code null}
+     */
+    public void pushBack(E item) {
+        checkItem(item);
+
+        backOperations++;
+
+        mutate(1);
+
+        if (split != null) {
+            split.pushBack(item);
+        } else if (linked != null) {
+            linked.pushBack(item);
+        } else {
+            insert(count, item);
+        }
+    }
+
+    /**
+     * Retrieves and removes the first element of this mdeque.
+     *
+     * @return the front of this mdeque, or {@code null} if this mdeque is empty
+     */
+    public E popFront() {
+        frontOperations++;
+
+        mutate(0);
+
+        if (split != null) {
+            return split.popFront();
+        } else if (linked != null) {
+            return linked.popFront();
+        } else {
+            return remove(0);
+        }
+    }
+
+    /**
+     * Retrieves and removes the middle element of this mdeque.
+     *
+     * @return the middle of this mdeque, or {@code null} if this mdeque is empty
+     */
+    public E popMiddle() {
+        middleOperations++;
+
+        mutate(0);
+
+        if (split != null) {
+            return split.popMiddle();
+        } else if (linked != null) {
+            return linked.popMiddle();
+        } else {
+            return remove(count / 2);
+        }
+    }
+
+    /**
+     * Retrieves and removes the back element of this mdeque.
+     *
+     * @return the back of this mdeque, or {@code null} if this mdeque is empty
+     */
+    public E popBack() {
+        backOperations++;
+
+        mutate(0);
+
+        if (split != null) {
+            return split.popBack();
+        } else if (linked != null) {
+            return linked.popBack();
+        } else {
+            return remove(count - 1);
+        }
+    }
+
+    /**
+     * Removes the elements whose positions are between {@code fromIndex},
+     * inclusive, and {@code toIndex}, exclusive. The position count is zero based.
+     *
+     * @param fromIndex the position of the first element to remove
+     * @param toIndex   the position after the last element to remove
+     * @throws IndexOutOfBoundsException if {@code fromIndex} is negative,
+     *                                   {@code toIndex} is greater than the size
+     *                                   of this mdeque, or {@code fromIndex} is
+     *                                   greater than {@code toIndex}
+     * @see MDeque#removeRange(int, int)
+     */
+    public void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("Range [" + fromIndex + ", " + toIndex
+                    + ") is out of bounds for size " + size() + ".");
+        }
+
+        rangeRemovals++;
+        version++;
+
+        // The split representation rebuilds both halves
+
+        if (split != null) {
+            work(size());
+        } else {
+            work(1);
+        }
+
+        if (split != null) {
+            split.removeRange(fromIndex, toIndex);
+        } else if (linked != null) {
+            linked.removeRange(fromIndex, toIndex);
+        } else {
+            System.arraycopy(values, toIndex, values, fromIndex, count - toIndex);
+
+            for (int i = count - (toIndex - fromIndex); i < count; i++) {
+                values[i] = null;
+            }
+
+            count -= toIndex - fromIndex;
+        }
+    }
+
+    /**
+     * Returns an iterator over the elements in this mdeque in proper sequence. The
+     * elements will be returned in order from front to back.
+     *
+     * @return an iterator over the elements in this mdeque in proper sequence
+     */
+    @Override
+    public Iterator<E> iterator() {
+        traversals++;
+
+        work(size());
+
+        return iterator(true);
+    }
+
+    /**
+     * Returns an iterator over the elements in this mdeque in reverse sequential
+     * order. The elements will be returned in order from back to front.
+     *
+     * @return an iterator over the elements in this mdeque in reverse sequence
+     */
+    public Iterator<E> reverseIterator() {
+        traversals++;
+
+        work(size());
+
+        return iterator(false);
+    }
+
+    /**
+     * Returns a string representation of this mdeque.
+     *
+     * The string representation consists of a list of the collection's elements in
+     * the order they are returned by its iterator, enclosed in square brackets
+     * ({@code "[]"}). Adjacent elements are separated by the characters
+     * {@code ", "} (comma and space).
+     *
+     * @return a string representation of this mdeque
+     */
+    @Override
+    public String toString() {
+        final StringBuilder result = new StringBuilder();
+
+        result.append('[');
+
+        for (Iterator<E> iterator = iterator(true); iterator.hasNext();) {
+            result.append(iterator.next());
+
+            if (iterator.hasNext()) {
+                result.append(", ");
+            }
+        }
+
+        return result
+                .append(']')
+                .toString();
+    }
+
+    /**
+     * Returns the current representation.
+     *
+     * @return the representation of the elements
+     */
+    Representation representation() {
+        if (split != null) {
+            return Representation.SPLIT;
+        } else if (linked != null) {
+            return Representation.LINKED;
+        } else {
+            return Representation.INLINE;
+        }
+    }
+
+    /**
+     * Validates an element before insertion.
+     *
+     * @param item the element to add
+     * @throws IllegalArgumentException if {@code item} is {@code null}
+     */
+    private static void checkItem(Object item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Value cannot be null. Argument name: item.");
+        }
+    }
+
+    /**
+     * Returns an iterator over the current representation without recording a
+     * traversal.
+     *
+     * @param forward {@code true} to iterate from front to back, or {@code false}
+     *                to iterate from back to front
+     * @return an iterator that detects modification of this mdeque
+     */
+    private Iterator<E> iterator(boolean forward) {
+        if (split != null) {
+            if (forward) {
+                return split.iterator();
+            } else {
+                return split.reverseIterator();
+            }
+        } else if (linked != null) {
+            if (forward) {
+                return new AdaptiveIterator(linked.iterator());
+            } else {
+                return new AdaptiveIterator(linked.reverseIterator());
+            }
+        } else {
+            // Mutations of the inline array change the version, and a migration
+            // replaces the array rather than changing it
+
+            final Object[] snapshot = values;
+
+            return new PositionalIterator(count, forward) {
+                @Override
+                @SuppressWarnings("unchecked")
+                protected E get(int index) {
+                    return (E) snapshot[index];
+                }
+            };
+        }
+    }
+
+    /**
+     * Retrieves the inline element at the specified position.
+     *
+     * @param index the zero-based position
+     * @return the element, or {@code null} if the position is out of range
+     */
+    @SuppressWarnings("unchecked")
+    private E get(int index) {
+        if (index < 0 || index >= count) {
+            return null;
+        } else {
+            return (E) values[index];
+        }
+    }
+
+    /**
+     * Inserts an inline element at the specified position.
+     *
+     * Precondition: the inline array is not full.
+     *
+     * @param index the zero-based position
+     * @param item  the element to insert
+     */
+    private void insert(int index, E item) {
+        System.arraycopy(values, index, values, index + 1, count - index);
+
+        values[index] = item;
+        count++;
+    }
+
+    /**
+     * Removes the inline element at the specified position.
+     *
+     * @param index the zero-based position
+     * @return the element, or {@code null} if the position is out of range
+     */
+    private E remove(int index) {
+        final E result = get(index);
+
+        if (result != null) {
+            System.arraycopy(values, index + 1, values, index, count - index - 1);
+
+            count--;
+            values[count] = null;
+        }
+
+        return result;
+    }
+
+    /**
+     * Records a mutation and ensures that the representation can hold the
+     * elements it adds.
+     *
+     * @param growth the number of elements the pending mutation adds
+     */
+    private void mutate(int growth) {
+        version++;
+
+        work(1);
+
+        if (split == null && linked == null && count + growth > INLINE_CAPACITY) {
+            // The inline array is full, so migrate regardless of the amortization
+            // rule; the inline operations have constant cost, so it still holds
+
+            migrate(large());
+        }
+    }
+
+    /**
+     * Records work and, at the end of an epoch, migrates to the representation
+     * that best suits the observed workload.
+     *
+     * @param units the units of work performed by the pending operation
+     */
+    private void work(int units) {
+        workSinceMigration += units;
+        epochRemaining -= units;
+
+        // The choice is kept in a separate method, so that it is not compiled
+        // into every operation along with the cheap bookkeeping
+
+        if (epochRemaining <= 0) {
+            endEpoch();
+        }
+    }
+
+    /**
+     * Chooses a representation for the epoch that ended, migrates to it if the
+     * amortization rule allows, and starts a new epoch.
+     */
+    private void endEpoch() {
+        final Representation target = choose();
+
+        frontOperations = 0;
+        middleOperations = 0;
+        backOperations = 0;
+        traversals = 0;
+        rangeRemovals = 0;
+        epochRemaining = EPOCH_LENGTH;
+
+        if (target != representation() && workSinceMigration >= size()) {
+            migrate(target);
+        }
+    }
+
+    /**
+     * Chooses the representation for the current size and the workload observed
+     * in this epoch.
+     *
+     * @return the best representation
+     */
+    private Representation choose() {
+        final int size = size();
+
+        if (fixed != null) {
+            return fixed == Representation.INLINE && size > INLINE_CAPACITY ? Representation.SPLIT : fixed;
+        }
+
+        if (size <= INLINE_THRESHOLD || (representation() == Representation.INLINE && size <= INLINE_CAPACITY)) {
+            return Representation.INLINE;
+        }
+
+        return large();
+    }
+
+    /**
+     * Chooses between the representations for more elements than fit inline. The
+     * split representation is faster at every point of access and when iterating,
+     * but removes a range in linear time, while the linked list does so in time
+     * proportional to the distance from the range to an end or the middle.
+     *
+     * @return the split or the linked representation
+     */
+    private Representation large() {
+        if (fixed != null) {
+            return fixed == Representation.LINKED ? Representation.LINKED : Representation.SPLIT;
+        }
+
+        final long size = size();
+        final long operations = frontOperations + middleOperations + backOperations;
+
+        // The linked list allocates a node per insertion and is slower to
+        // traverse, so it must save more than it costs
+
+        if (rangeRemovals * size > 2 * operations + traversals * size) {
+            return Representation.LINKED;
+        } else {
+            return Representation.SPLIT;
+        }
+    }
+
+    /**
+     * Copies the elements into a new representation. The old representation is
+     * left unchanged, so outstanding iterators over it remain valid.
+     *
+     * @param target the new representation
+     */
+    private void migrate(Representation target) {
+        final Iterator<E> iterator = iterator(true);
+
+        switch (target) {
+            case INLINE:
+                final Object[] inline = new Object[INLINE_CAPACITY];
+                int inlineCount = 0;
+
+                while (iterator.hasNext()) {
+                    inline[inlineCount++] = iterator.next();
+                }
+
+                values = inline;
+                count = inlineCount;
+                split = null;
+                linked = null;
+                break;
+
+            case SPLIT:
+                final SplitLayout splitLayout = new SplitLayout();
+
+                while (iterator.hasNext()) {
+                    splitLayout.back.addLast(iterator.next());
+                }
+
+                splitLayout.balance();
+
+                values = null;
+                count = 0;
+                split = splitLayout;
+                linked = null;
+                break;
+
+            default:
+                final MDeque<E> deque = new MDeque<E>();
+
+                while (iterator.hasNext()) {
+                    deque.pushBack(iterator.next());
+                }
+
+                values = null;
+                count = 0;
+                split = null;
+                linked = deque;
+                break;
+        }
+
+        workSinceMigration = 0;
+    }
+}
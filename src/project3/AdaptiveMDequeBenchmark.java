@@ -0,0 +1,342 @@
+package project3;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Measures {@link AdaptiveMDeque} against each of its representations kept
+ * fixed, over workloads that favor different representations.
+ *
+ * Each workload is run with the inline, split, and linked representations
+ * kept fixed and with the adaptive choice. The time of a virtual machine is the
+ * fastest of its measured runs, since activity on the host only ever adds
+ * time. The median over several virtual machines is printed in milliseconds,
+ * followed by the ratio of the adaptive time to the best fixed time. The inline representation is only measured on the
+ * workload whose mdeques fit in the inline array.
+ *
+ * Every measurement runs in a separate virtual machine, so that the type
+ * profile gathered while measuring one representation does not slow down the
+ * code compiled for the next. Each workload is measured in several rounds of
+ * virtual machines, one per representation in each round, so that a slow
+ * virtual machine affects one round rather than one column. The order of the
+ * virtual machines is rotated from round to round.
+ *
+ * The usage is {@code AdaptiveMDequeBenchmark [runs [warmups [forks]]]}.
+ *
+ * @author Ishan Pranav
+ */
+public final class AdaptiveMDequeBenchmark {
+
+    /**
+     * Identifies a workload of the benchmark.
+     *
+     * @author Ishan Pranav
+     */
+    private enum Workload {
+        /** Many short-lived mdeques of seven elements. */
+        SMALL(true) {
+            @Override
+            public long run(AdaptiveMDeque.Representation representation) {
+                long result = 0;
+
+                for (int i = 0; i < 2_000_000; i++) {
+                    final AdaptiveMDeque<Integer> deque = new AdaptiveMDeque<Integer>(representation);
+
+                    for (int j = 0; j < 6; j++) {
+                        deque.pushBack(VALUES[j]);
+                    }
+
+                    deque.pushMiddle(VALUES[i & MASK]);
+
+                    result += deque.popMiddle() + deque.popFront() + deque.popBack();
+                }
+
+                return result;
+            }
+        },
+
+        /** A large mdeque used as a first-in, first-out queue. */
+        QUEUE(false) {
+            @Override
+            public long run(AdaptiveMDeque.Representation representation) {
+                final AdaptiveMDeque<Integer> deque = fill(representation, 1_000_000);
+                long result = 0;
+
+                for (int i = 0; i < 10_000_000; i++) {
+                    deque.pushBack(VALUES[i & MASK]);
+
+                    result += deque.popFront();
+                }
+
+                return result;
+            }
+        },
+
+        /** A large mdeque accessed at its middle. */
+        MIDDLE(false) {
+            @Override
+            public long run(AdaptiveMDeque.Representation representation) {
+                final AdaptiveMDeque<Integer> deque = fill(representation, 1_000_000);
+                long result = 0;
+
+                for (int i = 0; i < 10_000_000; i++) {
+                    deque.pushMiddle(VALUES[i & MASK]);
+
+                    result += deque.popMiddle();
+                }
+
+                return result;
+            }
+        },
+
+        /** A large mdeque that is mostly traversed by iterators. */
+        ITERATE(false) {
+            @Override
+            public long run(AdaptiveMDeque.Representation representation) {
+                final AdaptiveMDeque<Integer> deque = fill(representation, 100_000);
+                long result = 0;
+
+                for (int i = 0; i < 300; i++) {
+                    for (Iterator<Integer> iterator = deque.iterator(); iterator.hasNext();) {
+                        result += iterator.next();
+                    }
+
+                    deque.pushBack(VALUES[i & MASK]);
+                }
+
+                return result;
+            }
+        },
+
+        /** A large mdeque from which short ranges are removed around the middle. */
+        RANGE(false) {
+            @Override
+            public long run(AdaptiveMDeque.Representation representation) {
+                final AdaptiveMDeque<Integer> deque = fill(representation, 1_000);
+                long result = 0;
+
+                for (int i = 0; i < 2_000_000; i++) {
+                    final int middle = deque.size() / 2;
+
+                    deque.removeRange(middle, middle + 2);
+                    deque.pushFront(VALUES[i & MASK]);
+                    deque.pushBack(VALUES[i & MASK]);
+
+                    result += deque.peekMiddle();
+                }
+
+                return result;
+            }
+        };
+
+        private final boolean small;
+
+        /**
+         * Initializes a new instance of the {@link Workload} enumeration.
+         *
+         * @param small {@code true} if the mdeques fit in the inline array
+         */
+        Workload(boolean small) {
+            this.small = small;
+        }
+
+        /**
+         * Runs the workload.
+         *
+         * @param representation the representation to keep, or {@code null} to
+         *                       adapt
+         * @return a checksum of the elements removed or visited
+         */
+        public abstract long run(AdaptiveMDeque.Representation representation);
+    }
+
+    private static final String MEASURE = "--measure";
+    private static final String ADAPTIVE = "ADAPTIVE";
+    private static final int MASK = 1023;
+    private static final Integer[] VALUES = new Integer[MASK + 1];
+
+    static {
+        for (int i = 0; i < VALUES.length; i++) {
+            VALUES[i] = i;
+        }
+    }
+
+    /** Initializes a new instance of the {@link AdaptiveMDequeBenchmark} class. */
+    private AdaptiveMDequeBenchmark() {
+    }
+
+    /**
+     * Provides the main entry point for the benchmark.
+     *
+     * @param args the number of measured runs, the number of warm-up runs and the
+     *             number of virtual machines per measurement
+     * @throws IOException          if a measurement cannot be started
+     * @throws InterruptedException if the thread is interrupted while waiting for
+     *                              a measurement
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length > 0 && args[0].equals(MEASURE)) {
+            final Workload workload = Workload.valueOf(args[1]);
+            final AdaptiveMDeque.Representation representation = args[2].equals(ADAPTIVE) ? null
+                    : AdaptiveMDeque.Representation.valueOf(args[2]);
+
+            System.out.println(measure(workload, representation, Integer.parseInt(args[3]), Integer.parseInt(args[4])));
+
+            return;
+        }
+
+        final int runs = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        final int warmups = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        final int forks = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        final AdaptiveMDeque.Representation[] fixed = AdaptiveMDeque.Representation.values();
+
+        System.out.printf("%-8s %10s %10s %10s %10s %9s%n", "workload", "inline", "split", "linked", "adaptive",
+                "adaptive/best");
+
+        for (Workload workload : Workload.values()) {
+            final StringBuilder row = new StringBuilder(String.format("%-8s", workload.name().toLowerCase()));
+
+            // The last column holds the adaptive times
+
+            final double[][] times = new double[fixed.length + 1][forks];
+
+            // Each round starts with a different column, so no column is always
+            // measured right after the same one
+
+            for (int i = 0; i < forks; i++) {
+                for (int k = 0; k <= fixed.length; k++) {
+                    final int j = (i + k) % (fixed.length + 1);
+
+                    if (j == fixed.length) {
+                        times[j][i] = fork(workload, ADAPTIVE, runs, warmups);
+                    } else if (fixed[j] != AdaptiveMDeque.Representation.INLINE || workload.small) {
+                        times[j][i] = fork(workload, fixed[j].name(), runs, warmups);
+                    }
+                }
+            }
+
+            double best = Double.MAX_VALUE;
+
+            for (int j = 0; j < fixed.length; j++) {
+                if (fixed[j] != AdaptiveMDeque.Representation.INLINE || workload.small) {
+                    final double time = median(times[j]);
+
+                    best = Math.min(best, time);
+
+                    row.append(String.format(" %10.0f", time));
+                } else {
+                    row.append(String.format(" %10s", "-"));
+                }
+            }
+
+            final double adaptive = median(times[fixed.length]);
+
+            row.append(String.format(" %10.0f %9.2f", adaptive, adaptive / best));
+
+            System.out.println(row);
+        }
+    }
+
+    /**
+     * Returns the fastest time of a workload, measured in a new virtual machine.
+     *
+     * @param workload       the workload
+     * @param representation the name of the representation to keep, or
+     *                       {@value #ADAPTIVE}
+     * @param runs           the number of measured runs
+     * @param warmups        the number of runs before the measured runs
+     * @return the fastest time, in milliseconds
+     * @throws IOException          if the virtual machine cannot be started
+     * @throws InterruptedException if the thread is interrupted while waiting for
+     *                              the virtual machine
+     */
+    private static double fork(Workload workload, String representation, int runs, int warmups)
+            throws IOException, InterruptedException {
+        final String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        final Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                AdaptiveMDequeBenchmark.class.getName(), MEASURE, workload.name(), representation,
+                Integer.toString(runs), Integer.toString(warmups))
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        final String result;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            result = reader.readLine();
+        }
+
+        if (process.waitFor() != 0 || result == null) {
+            throw new IOException("Measurement of " + workload + " failed.");
+        }
+
+        return Double.parseDouble(result);
+    }
+
+    /**
+     * Returns the fastest time of a workload.
+     *
+     * @param workload       the workload
+     * @param representation the representation to keep, or {@code null} to adapt
+     * @param runs           the number of measured runs
+     * @param warmups        the number of runs before the measured runs
+     * @return the fastest time, in milliseconds
+     */
+    private static double measure(Workload workload, AdaptiveMDeque.Representation representation, int runs,
+            int warmups) {
+        double result = Double.MAX_VALUE;
+        long checksum = 0;
+
+        for (int i = 0; i < warmups; i++) {
+            checksum += workload.run(representation);
+        }
+
+        for (int i = 0; i < runs; i++) {
+            final long start = System.nanoTime();
+
+            checksum += workload.run(representation);
+            result = Math.min(result, (System.nanoTime() - start) / 1e6);
+        }
+
+        if (checksum == Long.MIN_VALUE) {
+            // Keeps the results observable
+
+            System.out.println(checksum);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the median of the specified values.
+     *
+     * @param values the values
+     * @return the median
+     */
+    private static double median(double[] values) {
+        final double[] sorted = values.clone();
+
+        Arrays.sort(sorted);
+
+        return sorted[sorted.length / 2];
+    }
+
+    /**
+     * Creates an mdeque with the specified number of elements.
+     *
+     * @param representation the representation to keep, or {@code null} to adapt
+     * @param size           the number of elements
+     * @return the mdeque
+     */
+    private static AdaptiveMDeque<Integer> fill(AdaptiveMDeque.Representation representation, int size) {
+        final AdaptiveMDeque<Integer> result = new AdaptiveMDeque<Integer>(representation);
+
+        for (int i = 0; i < size; i++) {
+            result.pushBack(VALUES[i & MASK]);
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,640 @@
+package project3;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BinaryOperator;
+
+/**
+ * An mdeque that maintains the aggregate of its elements under an associative
+ * combine function, such as a sum, minimum or maximum. Aggregates are available
+ * for the whole mdeque, for its front half and for its back half, each in
+ * constant time.
+ *
+ * The front half holds the first {@code size / 2} elements and the back half
+ * holds the rest, so the <em>middle</em> element is the first element of the
+ * back half. The combine function need not be commutative or invertible;
+ * elements are always combined in front-to-back order.
+ *
+ * Each half is stored as a pair of stacks that meet inside the half, with each
+ * stack entry holding the aggregate of the entries beneath it. Pushing or
+ * popping at either end of a half updates one stack in constant time; when a
+ * pop empties its stack, the other stack is split in two, so every
+ * {@code pop...} and {@code push...} operation runs in amortized constant time.
+ *
+ * The remove operations all return null values if the mdeque is empty. The
+ * structure does not allow null as an element.
+ *
+ * @param <E> the type of elements held in this mdeque
+ *
+ * @author Ishan Pranav
+ */
+public class AugmentedMDeque<E> implements Iterable<E> {
+
+    /**
+     * Provides an array-based stack whose entries record the aggregate of all
+     * entries up to and including themselves.
+     *
+     * @author Ishan Pranav
+     */
+    private final class AggregateStack {
+        private final boolean prepend;
+
+        private Object[] values = new Object[8];
+        private Object[] aggregates = new Object[8];
+        private int size;
+
+        /**
+         * Initializes a new instance of the {@link AggregateStack} class.
+         *
+         * @param prepend {@code true} if each element precedes the elements
+         *                beneath it in sequence order; otherwise, {@code false}
+         */
+        public AggregateStack(boolean prepend) {
+            this.prepend = prepend;
+        }
+
+        /**
+         * Pushes an element onto the stack.
+         *
+         * @param item the element
+         */
+        public void push(E item) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+                aggregates = Arrays.copyOf(aggregates, size * 2);
+            }
+
+            final E aggregate;
+
+            if (size == 0) {
+                aggregate = item;
+            } else if (prepend) {
+                aggregate = combine.apply(item, get(aggregates, size - 1));
+            } else {
+                aggregate = combine.apply(get(aggregates, size - 1), item);
+            }
+
+            values[size] = item;
+            aggregates[size] = aggregate;
+            size++;
+        }
+
+        /**
+         * Removes and returns the top element.
+         *
+         * Precondition: the stack is not empty.
+         *
+         * @return the top element
+         */
+        public E pop() {
+            size--;
+
+            final E result = get(values, size);
+
+            values[size] = null;
+            aggregates[size] = null;
+
+            return result;
+        }
+
+        /**
+         * Returns the element at the specified depth from the bottom.
+         *
+         * @param index the zero-based index from the bottom
+         * @return the element
+         */
+        public E at(int index) {
+            return get(values, index);
+        }
+
+        /**
+         * Returns the aggregate of every element in the stack.
+         *
+         * @return the aggregate, or the identity if the stack is empty
+         */
+        public E aggregate() {
+            if (size == 0) {
+                return identity;
+            } else {
+                return get(aggregates, size - 1);
+            }
+        }
+
+        /** Removes every element. */
+        public void clear() {
+            Arrays.fill(values, 0, size, null);
+            Arrays.fill(aggregates, 0, size, null);
+
+            size = 0;
+        }
+    }
+
+    /**
+     * Provides a deque with a constant-time aggregate, implemented as a front
+     * stack (whose top is the first element) and a back stack (whose top is the
+     * last element).
+     *
+     * @author Ishan Pranav
+     */
+    private final class AggregateDeque {
+        private final AggregateStack front = new AggregateStack(true);
+        private final AggregateStack back = new AggregateStack(false);
+
+        /**
+         * Returns the number of elements.
+         *
+         * @return the number of elements
+         */
+        public int size() {
+            return front.size + back.size;
+        }
+
+        /**
+         * Returns the aggregate of every element, in sequence order.
+         *
+         * @return the aggregate, or the identity if the deque is empty
+         */
+        public E aggregate() {
+            return combine.apply(front.aggregate(), back.aggregate());
+        }
+
+        /**
+         * Returns the element at the specified position.
+         *
+         * @param index the zero-based position
+         * @return the element
+         */
+        public E get(int index) {
+            if (index < front.size) {
+                return front.at(front.size - 1 - index);
+            } else {
+                return back.at(index - front.size);
+            }
+        }
+
+        /**
+         * Returns the first element.
+         *
+         * @return the first element, or {@code null} if the deque is empty
+         */
+        public E peekFirst() {
+            if (size() == 0) {
+                return null;
+            } else {
+                return get(0);
+            }
+        }
+
+        /**
+         * Returns the last element.
+         *
+         * @return the last element, or {@code null} if the deque is empty
+         */
+        public E peekLast() {
+            if (size() == 0) {
+                return null;
+            } else {
+                return get(size() - 1);
+            }
+        }
+
+        /**
+         * Inserts an element at the front.
+         *
+         * @param item the element
+         */
+        public void addFirst(E item) {
+            front.push(item);
+        }
+
+        /**
+         * Inserts an element at the back.
+         *
+         * @param item the element
+         */
+        public void addLast(E item) {
+            back.push(item);
+        }
+
+        /**
+         * Removes and returns the first element.
+         *
+         * @return the first element, or {@code null} if the deque is empty
+         */
+        public E pollFirst() {
+            if (front.size == 0) {
+                if (back.size == 0) {
+                    return null;
+                }
+
+                split((back.size + 1) / 2);
+            }
+
+            return front.pop();
+        }
+
+        /**
+         * Removes and returns the last element.
+         *
+         * @return the last element, or {@code null} if the deque is empty
+         */
+        public E pollLast() {
+            if (back.size == 0) {
+                if (front.size == 0) {
+                    return null;
+                }
+
+                split(front.size / 2);
+            }
+
+            return back.pop();
+        }
+
+        /**
+         * Redistributes the elements so that the front stack holds the specified
+         * number of elements and the back stack holds the rest, recomputing the
+         * aggregates of both.
+         *
+         * @param frontSize the number of elements for the front stack
+         */
+        private void split(int frontSize) {
+            final int size = size();
+            final Object[] sequence = new Object[size];
+
+            for (int i = 0; i < size; i++) {
+                sequence[i] = get(i);
+            }
+
+            front.clear();
+            back.clear();
+
+            for (int i = frontSize - 1; i >= 0; i--) {
+                front.push(AugmentedMDeque.get(sequence, i));
+            }
+
+            for (int i = frontSize; i < size; i++) {
+                back.push(AugmentedMDeque.get(sequence, i));
+            }
+        }
+    }
+
+    /**
+     * Provides a sequential (front-to-back) or reverse (back-to-front) iterator
+     * for the mdeque.
+     *
+     * @author Ishan Pranav
+     */
+    private class AugmentedMDequeIterator implements Iterator<E> {
+        private final int expectedVersion = version;
+        private final boolean reverse;
+
+        private int index;
+
+        /**
+         * Initializes a new instance of the {@link AugmentedMDequeIterator} class.
+         *
+         * @param reverse {@code true} to iterate from back to front; otherwise,
+         *                {@code false}
+         */
+        public AugmentedMDequeIterator(boolean reverse) {
+            this.reverse = reverse;
+        }
+
+        /**
+         * Returns {@code true} if the iteration has more elements.
+         *
+         * @return {@code true} if the iteration has more elements.
+         */
+        @Override
+        public boolean hasNext() {
+            return index < size();
+        }
+
+        /**
+         * Returns the next element in the iteration.
+         *
+         * @throws ConcurrentModificationException if the mdeque has been modified
+         *                                         concurrently with the iteration
+         * @throws NoSuchElementException          if the iteration has no more elements
+         */
+        @Override
+        public E next() {
+            if (version != expectedVersion) {
+                throw new ConcurrentModificationException("Collection was modified during iteration.");
+            }
+
+            if (index >= size()) {
+                throw new NoSuchElementException("Collection has no more elements.");
+            }
+
+            final int position;
+
+            if (reverse) {
+                position = size() - 1 - index;
+            } else {
+                position = index;
+            }
+
+            index++;
+
+            return get(position);
+        }
+    }
+
+    private final E identity;
+    private final BinaryOperator<E> combine;
+    private final AggregateDeque front = new AggregateDeque();
+    private final AggregateDeque back = new AggregateDeque();
+
+    private int version;
+
+    /**
+     * Creates an empty mdeque object.
+     *
+     * @param identity the identity of the combine function: the aggregate of no
+     *                 elements
+     * @param combine  the associative function that combines two aggregates, in
+     *                 sequence order
+     * @throws IllegalArgumentException if {@code identity} or {@code combine} is
+     *                                  {@code null}
+     */
+    public AugmentedMDeque(E identity, BinaryOperator<E> combine) {
+        if (identity == null) {
+            throw new IllegalArgumentException("Value cannot be null. Argument name: identity.");
+        }
+
+        if (combine == null) {
+            throw new IllegalArgumentException("Value cannot be null. Argument name: combine.");
+        }
+
+        this.identity = identity;
+        this.combine = combine;
+    }
+
+    /**
+     * Returns the number of elements in this mdeque.
+     *
+     * @return the number of elements in this mdeque.
+     */
+    public int size() {
+        return front.size() + back.size();
+    }
+
+    /**
+     * Returns the aggregate of every element in this mdeque.
+     *
+     * @return the aggregate, or the identity if this mdeque is empty
+     */
+    public E aggregate() {
+        return combine.apply(front.aggregate(), back.aggregate());
+    }
+
+    /**
+     * Returns the aggregate of the front half of this mdeque: the elements that
+     * precede the middle element.
+     *
+     * @return the aggregate, or the identity if the front half is empty
+     */
+    public E frontAggregate() {
+        return front.aggregate();
+    }
+
+    /**
+     * Returns the aggregate of the back half of this mdeque: the middle element
+     * and the elements that follow it.
+     *
+     * @return the aggregate, or the identity if this mdeque is empty
+     */
+    public E backAggregate() {
+        return back.aggregate();
+    }
+
+    /**
+     * Retrieves the first element of this mdeque.
+     *
+     * @return the front of this mdeque, or {@code null} if this mdeque is empty
+     */
+    public E peekFront() {
+        if (front.size() == 0) {
+            return back.peekFirst();
+        } else {
+            return front.peekFirst();
+        }
+    }
+
+    /**
+     * Retrieves the middle element of this mdeque.
+     *
+     * @return the middle of this mdeque, or {@code null} if this mdeque is empty
+     */
+    public E peekMiddle() {
+        return back.peekFirst();
+    }
+
+    /**
+     * Retrieves the back element of this mdeque.
+     *
+     * @return the back of this mdeque, or {@code null} if this mdeque is empty
+     */
+    public E peekBack() {
+        return back.peekLast();
+    }
+
+    /**
+     * Inserts the specified item at the front of this mdeque.
+     *
+     * @param item the element to add
+     * @throws IllegalArgumentException if {@code item} is {@code null}
+     */
+    public void pushFront(E item) {
+        checkItem(item);
+        front.addFirst(item);
+        balance();
+    }
+
+    /**
+     * Inserts the specified item in the middle of this mdeque.
+     *
+     * @param item the element to add
+     * @throws IllegalArgumentException if {@code item} is {@code null}
+     */
+    public void pushMiddle(E item) {
+        checkItem(item);
+
+        if (size() % 2 == 1) {
+            // When adding to an odd-length list, the new element follows the
+            // current middle
+
+            front.addLast(back.pollFirst());
+        }
+
+        back.addFirst(item);
+        balance();
+    }
+
+    /**
+     * Inserts the specified item at the back of this mdeque.
+     *
+     * @param item the element to add
+     * @throws IllegalArgumentException if {@code item} is {@code null}
+     */
+    public void pushBack(E item) {
+        checkItem(item);
+        back.addLast(item);
+        balance();
+    }
+
+    /**
+     * Retrieves and removes the first element of this mdeque.
+     *
+     * @return the front of this mdeque, or {@code null} if this mdeque is empty
+     */
+    public E popFront() {
+        final E result;
+
+        if (front.size() == 0) {
+            result = back.pollFirst();
+        } else {
+            result = front.pollFirst();
+        }
+
+        balance();
+
+        return result;
+    }
+
+    /**
+     * Retrieves and removes the middle element of this mdeque.
+     *
+     * @return the middle of this mdeque, or {@code null} if this mdeque is empty
+     */
+    public E popMiddle() {
+        final E result = back.pollFirst();
+
+        balance();
+
+        return result;
+    }
+
+    /**
+     * Retrieves and removes the back element of this mdeque.
+     *
+     * @return the back of this mdeque, or {@code null} if this mdeque is empty
+     */
+    public E popBack() {
+        final E result = back.pollLast();
+
+        balance();
+
+        return result;
+    }
+
+    /**
+     * Returns an iterator over the elements in this mdeque in proper sequence. The
+     * elements will be returned in order from front to back.
+     *
+     * @return an iterator over the elements in this mdeque in proper sequence
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new AugmentedMDequeIterator(false);
+    }
+
+    /**
+     * Returns an iterator over the elements in this mdeque in reverse sequential
+     * order. The elements will be returned in order from back to front.
+     *
+     * @return an iterator over the elements in this mdeque in reverse sequence
+     */
+    public Iterator<E> reverseIterator() {
+        return new AugmentedMDequeIterator(true);
+    }
+
+    /**
+     * Returns a string representation of this mdeque.
+     *
+     * The string representation consists of a list of the collection's elements in
+     * the order they are returned by its iterator, enclosed in square brackets
+     * ({@code "[]"}). Adjacent elements are separated by the characters
+     * {@code ", "} (comma and space).
+     *
+     * @return a string representation of this mdeque
+     */
+    @Override
+    public String toString() {
+        final StringBuilder result = new StringBuilder();
+
+        result.append('[');
+
+        for (int i = 0; i < size(); i++) {
+            if (i > 0) {
+                result.append(", ");
+            }
+
+            result.append(get(i));
+        }
+
+        return result
+                .append(']')
+                .toString();
+    }
+
+    /**
+     * Returns the element at the specified position.
+     *
+     * @param index the zero-based position
+     * @return the element
+     */
+    private E get(int index) {
+        if (index < front.size()) {
+            return front.get(index);
+        } else {
+            return back.get(index - front.size());
+        }
+    }
+
+    /**
+     * Moves elements between the halves until the front half holds exactly
+     * {@code size / 2} elements, and records a modification.
+     */
+    private void balance() {
+        final int target = size() / 2;
+
+        while (front.size() > target) {
+            back.addFirst(front.pollLast());
+        }
+
+        while (front.size() < target) {
+            front.addLast(back.pollFirst());
+        }
+
+        version++;
+    }
+
+    /**
+     * Validates an element before insertion.
+     *
+     * @param item the element to add
+     * @throws IllegalArgumentException if {@code item} is {@code null}
+     */
+    private static void checkItem(Object item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Value cannot be null. Argument name: item.");
+        }
+    }
+
+    /**
+     * Reads an element from an untyped array.
+     *
+     * @param <T>   the type of the element
+     * @param array the array
+     * @param index the index of the element
+     * @return the element
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T get(Object[] array, int index) {
+        return (T) array[index];
+    }
+}
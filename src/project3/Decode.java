@@ -1,18 +1,34 @@
 package project3;
 
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.NoSuchElementException;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.regex.PatternSyntaxException;
 
 /**
  * This program process a sequence of numbers according to given instructions.
  * The sequence of values provided by the user is a comma and space separated
  * list of integers. For example: {@code 12, 43, 189, 42, 1, 35}.
- * The instructions consist of characters 'F', 'B' and 'R':
+ * The instructions consist of characters 'F', 'B', 'M' and 'R':
  * - F - drop the first element of the sequence
  * - B - drop the last element of the sequence
+ * - M - drop the middle element of the sequence
  * - R - reverse the sequence.
  *
+ * Each instruction may be followed by a decimal repeat count, so that
+ * {@code F1000000} drops the first million elements and {@code R3} reverses the
+ * sequence three times. The middle element is the one that
+ * {@link MDeque#popMiddle()} would remove from the sequence as it is currently
+ * ordered.
+ *
  * The program outputs the resulting numerical sequence after the instructions
  * were processed.
  *
@@ -25,6 +41,69 @@ import java.util.regex.PatternSyntaxException;
  */
 public final class Decode {
 
+    /**
+     * Provides the values parsed from one chunk of a sequence.
+     * 
+     * @author Ishan Pranav
+     */
+    private static final class SequenceChunk {
+        private int[] values = new int[16];
+        private int count;
+        private int errorOffset = -1;
+    }
+
+    /**
+     * Parses a range of sequence chunks, splitting the range in half until a
+     * single chunk remains.
+     * 
+     * @author Ishan Pranav
+     */
+    private static final class ParseTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final String sequence;
+        private final int[] starts;
+        private final SequenceChunk[] results;
+        private final int low;
+        private final int high;
+
+        /**
+         * Initializes a new instance of the {@link ParseTask} class.
+         * 
+         * @param sequence the sequence
+         * @param starts   the offset of the first value of each chunk, followed by
+         *                 the offset one separator past the end of the sequence
+         * @param results  the destination for the parsed chunks
+         * @param low      the index of the first chunk to parse, inclusive
+         * @param high     the index of the last chunk to parse, exclusive
+         */
+        public ParseTask(String sequence, int[] starts, SequenceChunk[] results, int low, int high) {
+            this.sequence = sequence;
+            this.starts = starts;
+            this.results = results;
+            this.low = low;
+            this.high = high;
+        }
+
+        /** Parses the chunks in the range. */
+        @Override
+        protected void compute() {
+            if (high - low == 1) {
+                results[low] = parseChunk(sequence, starts[low], starts[low + 1] - SEPARATOR.length());
+            } else {
+                final int middle = (low + high) >>> 1;
+
+                invokeAll(
+                        new ParseTask(sequence, starts, results, low, middle),
+                        new ParseTask(sequence, starts, results, middle, high));
+            }
+        }
+    }
+
+    private static final String SEPARATOR = ", ";
+    private static final int PARALLEL_THRESHOLD = 1 << 20;
+    private static final int MINIMUM_CHUNK_LENGTH = 1 << 16;
+
     /** Initializes a new instance of the {@link Decode} class. */
     private Decode() {
     }
@@ -32,91 +111,239 @@ public final class Decode {
     /**
      * Provides the main entry point for the application.
      * 
+     * When started with the {@code --stats} argument, the program runs in
+     * statistics mode: it processes pairs of sequence and instruction lines until
+     * the input is exhausted, records the wall time, allocation and element count
+     * of every stage, and prints their percentiles to the standard error stream.
+     * With {@code --stats=<file>}, a JSON summary is also written to the file.
+     * 
      * @param args the command-line arguments to the program.
      */
     public static void main(String[] args) {
+        DecodeStatistics statistics = DecodeStatistics.DISABLED;
+        String statisticsPath = null;
+
+        for (String arg : args) {
+            if (arg.equals("--stats")) {
+                statistics = new DecodeStatistics();
+            } else if (arg.startsWith("--stats=")) {
+                statistics = new DecodeStatistics();
+                statisticsPath = arg.substring("--stats=".length());
+            }
+        }
+
         Scanner in = new Scanner(System.in);
 
+        // Print results through a channel on the standard output descriptor,
+        // which is left open when the program ends
+
+        SequenceWriter output = new SequenceWriter(new FileOutputStream(FileDescriptor.out).getChannel());
+
+        if (statistics == DecodeStatistics.DISABLED) {
+            int status = run(in, output, statistics, false);
+
+            if (status != 0) {
+                System.exit(status);
+            }
+        } else {
+            int status = 0;
+
+            // Batch mode: process every pair of lines and report the first failure
+
+            while (in.hasNextLine()) {
+                final int result = run(in, output, statistics, true);
+
+                if (status == 0) {
+                    status = result;
+                }
+            }
+
+            statistics.report(System.err);
+
+            if (statisticsPath != null) {
+                try (Writer writer = Files.newBufferedWriter(Paths.get(statisticsPath))) {
+                    statistics.writeJson(writer);
+                } catch (IOException ex) {
+                    System.err.println("Could not write statistics: " + ex.getMessage());
+                }
+            }
+
+            if (status != 0) {
+                System.exit(status);
+            }
+        }
+
+        in.close();
+    }
+
+    /**
+     * Reads, validates, parses, decodes and prints one sequence.
+     * 
+     * @param in         the input scanner
+     * @param output     the writer for the decoded sequence
+     * @param statistics the statistics that record each stage
+     * @param batch      {@code true} to treat a missing instruction line at the
+     *                   end of the input as empty instructions
+     * @return the exit status: {@code 0} on success, {@code 1} if the sequence is
+     *         invalid, {@code 2} if the instructions are invalid for the sequence,
+     *         {@code 3} if the instructions are invalid and {@code 4} if the
+     *         decoded sequence cannot be written
+     */
+    private static int run(Scanner in, SequenceWriter output, DecodeStatistics statistics, boolean batch) {
         System.out.println("Enter the sequence to process: ");
+        statistics.begin();
         String sequence = in.nextLine();
 
         System.out.println("Enter the sequence of instructions: ");
-        String instructions = in.nextLine();
+        String instructions = batch && !in.hasNextLine() ? "" : in.nextLine();
+        statistics.end(DecodeStatistics.Stage.READ, sequence.length() + instructions.length());
+
+        statistics.begin();
+        boolean valid = isValid(instructions);
+        statistics.end(DecodeStatistics.Stage.VALIDATE, instructions.length());
 
-        if (!isValid(instructions)) {
+        if (!valid) {
             System.out.println("ERROR: instruction sequence is invalid.");
-            System.exit(3);
+            return 3;
         }
 
         MDeque<Integer> list = null;
 
         try {
-            list = parseSequence(sequence);
+            statistics.begin();
+            list = sequence.length() >= PARALLEL_THRESHOLD ? parseSequence(sequence, statistics.pool())
+                    : parseSequence(sequence);
+            statistics.end(DecodeStatistics.Stage.PARSE, list.size());
         } catch (IllegalArgumentException ex) {
             System.out.println("Invalid numerical sequence. ");
-            System.exit(1);
+            return 1;
         }
 
         try {
+            final int elements = list.size();
+
+            statistics.begin();
             decode(list, instructions);
+            statistics.end(DecodeStatistics.Stage.DECODE, elements);
         } catch (NoSuchElementException ex) {
             System.out.println("Instructions are invalid for the given sequence.");
-            System.exit(2);
+            return 2;
         }
 
         System.out.println("Decoded sequence is: ");
-        System.out.println(list);
+        System.out.flush();
 
-        in.close();
+        try {
+            statistics.begin();
+            output.writeLine(list);
+            statistics.end(DecodeStatistics.Stage.PRINT, list.size());
+        } catch (IOException ex) {
+            System.err.println("Could not write the decoded sequence: " + ex.getMessage());
+            return 4;
+        }
+
+        return 0;
     }
 
     /**
      * Decode the sequence represented by the {@code list} mdeque following the
      * {@code instructions}.
      * 
+     * Each run (an instruction with its repeat count) is processed in constant
+     * time. Drops from the ends are accumulated and applied as a single trim of
+     * each end, which unlinks the dropped elements as one chain rather than one
+     * at a time.
+     * 
      * @param list         the mdeque with sequence to decode
      * @param instructions instructions to follow to decode the {@code list}
-     * @throws NoSuchElementException when the sequence is empty and the next
-     *                                instruction is either 'F' or 'B'
+     * @throws NoSuchElementException when the sequence does not contain enough
+     *                                elements for the next 'F', 'B' or 'M'
+     *                                instruction
      */
     public static void decode(MDeque<Integer> list, String instructions) throws NoSuchElementException {
         // Record the direction of the list
 
         boolean isListForward = true;
 
-        for (int i = 0; i < instructions.length(); i++) {
-            final char instruction = instructions.charAt(i);
+        // Record the number of pending drops from the front and back of the
+        // sequential (forward) representation of the list
 
-            if (instruction == 'R') {
-                // Reverse the list
+        long frontDrops = 0;
+        long backDrops = 0;
+
+        final int length = instructions.length();
+        int offset = 0;
+
+        while (offset < length) {
+            final char instruction = instructions.charAt(offset);
+            final int countEnd = countEnd(instructions, offset + 1, length);
+            final int count;
 
-                isListForward = !isListForward;
+            if (countEnd == offset + 1) {
+                count = 1;
             } else {
-                // Record the direction of the user's pop instruction
-
-                final boolean isInstructionF = instruction == 'F';
-
-                if (isInstructionF || instruction == 'B') {
-                    if (list.size() == 0) {
-                        throw new NoSuchElementException("Cannot drop from an empty list.");
-                    } else if (isListForward == isInstructionF) {
-                        // If the list direction and instruction direction match, then pop the front
-                        // For example, when dropping the front of a forward list or
-                        // when droping the back from a backward list
-
-                        list.popFront();
-                    } else {
-                        // If the list direction and instruction direction do not match, then pop the
-                        // back
-                        // For example, when dropping the back of a forward list or
-                        // when dropping the front of a backward list
-
-                        list.popBack();
-                    }
+                count = parseCount(instructions, offset + 1, countEnd);
+            }
+
+            offset = countEnd;
+
+            if (instruction == 'R') {
+                // Reverse the list once for each odd repetition
+
+                if (count % 2 == 1) {
+                    isListForward = !isListForward;
+                }
+            } else if (instruction == 'F' || instruction == 'B') {
+                if (isListForward == (instruction == 'F')) {
+                    // If the list direction and instruction direction match, then drop the
+                    // front
+                    // For example, when dropping the front of a forward list or
+                    // when droping the back from a backward list
+
+                    frontDrops += count;
+                } else {
+                    // If the list direction and instruction direction do not match, then drop
+                    // the back
+                    // For example, when dropping the back of a forward list or
+                    // when dropping the front of a backward list
+
+                    backDrops += count;
                 }
+
+                if (frontDrops + backDrops > list.size()) {
+                    throw new NoSuchElementException("Cannot drop from an empty list.");
+                }
+            } else if (instruction == 'M') {
+                // The middle depends on the ends, so apply the pending drops first
+
+                trim(list, frontDrops, backDrops);
+
+                frontDrops = 0;
+                backDrops = 0;
+
+                if (count > list.size()) {
+                    throw new NoSuchElementException("Cannot drop from an empty list.");
+                }
+
+                // Repeatedly dropping the middle removes a contiguous range: the
+                // remaining elements are the first half (rounded up) and the last
+                // half (rounded down) of the list as it is currently ordered
+
+                final int remaining = list.size() - count;
+                final int start;
+
+                if (isListForward) {
+                    start = (remaining + 1) / 2;
+                } else {
+                    start = remaining / 2;
+                }
+
+                list.removeRange(start, start + count);
             }
         }
 
+        trim(list, frontDrops, backDrops);
+
         // If the list has been reversed, convert it back to its sequential
         // representation
 
@@ -150,9 +377,67 @@ public final class Decode {
         }
     }
 
+    /**
+     * Removes elements from the front and back of the list.
+     * 
+     * @param list  the list
+     * @param front the number of elements to remove from the front
+     * @param back  the number of elements to remove from the back
+     */
+    private static void trim(MDeque<Integer> list, long front, long back) {
+        list.removeRange(0, (int) front);
+        list.removeRange(list.size() - (int) back, list.size());
+    }
+
+    /**
+     * Finds the end of the decimal repeat count that starts at the specified
+     * offset, if any.
+     * 
+     * @param instructions instruction string
+     * @param offset       the zero-based index after an instruction character
+     * @param length       the pre-computed length of the instruction string
+     * @return the index after the last digit of the repeat count, or
+     *         {@code offset} if there is no repeat count
+     */
+    private static int countEnd(String instructions, int offset, int length) {
+        while (offset < length && instructions.charAt(offset) >= '0' && instructions.charAt(offset) <= '9') {
+            offset++;
+        }
+
+        return offset;
+    }
+
+    /**
+     * Parses a decimal repeat count. A count too large for an {@code int} is
+     * clamped to {@code Integer.MAX_VALUE} or, if it is even, to
+     * {@code Integer.MAX_VALUE - 1}, so that it still exceeds the size of any
+     * mdeque and its parity is preserved for the 'R' instruction.
+     * 
+     * @param instructions instruction string
+     * @param begin        the index of the first digit
+     * @param end          the index after the last digit
+     * @return the repeat count
+     */
+    private static int parseCount(String instructions, int begin, int end) {
+        long result = 0;
+
+        for (int i = begin; i < end; i++) {
+            result = result * 10 + instructions.charAt(i) - '0';
+
+            if (result > Integer.MAX_VALUE) {
+                return Integer.MAX_VALUE - 1 + (instructions.charAt(end - 1) - '0') % 2;
+            }
+        }
+
+        return (int) result;
+    }
+
     /**
      * Convert a given sequence from string format to mdeque of interger values.
      * 
+     * Sequences of at least {@value #PARALLEL_THRESHOLD} characters are parsed in
+     * parallel on the common fork-join pool.
+     * 
      * @param sequence string with comma and space separated values
      * @return mdeque with the same values as the ones listed in the
      *         {@code sequence}
@@ -161,28 +446,155 @@ public final class Decode {
      *                                  to invalid characters or invalid separators
      */
     public static MDeque<Integer> parseSequence(String sequence) throws IllegalArgumentException {
+        if (sequence.length() >= PARALLEL_THRESHOLD) {
+            return parseSequence(sequence, ForkJoinPool.commonPool());
+        }
+
         MDeque<Integer> list = new MDeque<Integer>();
+        int offset = 0;
 
         try {
-            String[] splitSequence = sequence.split(", ");
+            String[] splitSequence = sequence.split(SEPARATOR);
 
             for (int i = 0; i < splitSequence.length; i++) {
                 list.pushBack(Integer.parseInt(splitSequence[i]));
+
+                offset += splitSequence[i].length() + SEPARATOR.length();
             }
 
         } catch (PatternSyntaxException ex) {
             System.err.println("THIS SHOULD NOT HAPPEN!");
         } catch (NumberFormatException ex) {
-            throw new IllegalArgumentException("invalid value in the sequence");
+            throw new IllegalArgumentException("invalid value in the sequence at offset " + offset);
         }
 
         return list;
     }
 
+    /**
+     * Convert a given sequence from string format to mdeque of interger values,
+     * parsing contiguous chunks of the sequence concurrently.
+     * 
+     * The sequence is divided into ranges of roughly equal length, and each range
+     * boundary is moved forward to the next separator so that no value is split.
+     * The chunks are parsed into integer arrays on the given pool and then joined
+     * in order by pushing to the back of a single mdeque, so the result (including
+     * its middle) is identical to that of {@link #parseSequence(String)}.
+     * 
+     * @param sequence string with comma and space separated values
+     * @param pool     the pool on which chunks are parsed
+     * @return mdeque with the same values as the ones listed in the
+     *         {@code sequence}
+     * @throws IllegalArgumentException when the sequence contains values that
+     *                                  cannot be converted to a list of integer due
+     *                                  to invalid characters or invalid separators;
+     *                                  the message contains the offset of the first
+     *                                  invalid value
+     */
+    public static MDeque<Integer> parseSequence(String sequence, ForkJoinPool pool) throws IllegalArgumentException {
+        MDeque<Integer> list = new MDeque<Integer>();
+        int end = sequence.length();
+
+        // Like String.split, discard trailing empty values
+
+        while (end >= SEPARATOR.length() && sequence.startsWith(SEPARATOR, end - SEPARATOR.length())) {
+            end -= SEPARATOR.length();
+        }
+
+        if (end == 0 && !sequence.isEmpty()) {
+            return list;
+        }
+
+        // Snap each chunk boundary to the start of the value after the next
+        // separator
+
+        final int chunks = Math.max(1, Math.min(pool.getParallelism() * 4, end / MINIMUM_CHUNK_LENGTH));
+        final int[] starts = new int[chunks + 1];
+        int count = 1;
+
+        for (int i = 1; i < chunks; i++) {
+            final long target = (long) end * i / chunks;
+            final int separator = sequence.indexOf(SEPARATOR, Math.max((int) target - 1, starts[count - 1]));
+
+            if (separator < 0 || separator + SEPARATOR.length() > end) {
+                break;
+            }
+
+            starts[count] = separator + SEPARATOR.length();
+            count++;
+        }
+
+        starts[count] = end + SEPARATOR.length();
+
+        final SequenceChunk[] results = new SequenceChunk[count];
+
+        pool.invoke(new ParseTask(sequence, starts, results, 0, count));
+
+        for (SequenceChunk chunk : results) {
+            if (chunk.errorOffset >= 0) {
+                throw new IllegalArgumentException("invalid value in the sequence at offset " + chunk.errorOffset);
+            }
+        }
+
+        for (SequenceChunk chunk : results) {
+            for (int i = 0; i < chunk.count; i++) {
+                list.pushBack(chunk.values[i]);
+            }
+        }
+
+        return list;
+    }
+
+    /**
+     * Parses the comma and space separated values in a range of a sequence.
+     * Parsing stops at the first invalid value.
+     * 
+     * @param sequence the sequence
+     * @param start    the offset of the first value, inclusive
+     * @param end      the offset of the end of the last value, exclusive
+     * @return the parsed chunk
+     */
+    private static SequenceChunk parseChunk(String sequence, int start, int end) {
+        final SequenceChunk result = new SequenceChunk();
+        int offset = start;
+
+        while (true) {
+            int separator = sequence.indexOf(SEPARATOR, offset);
+
+            if (separator < 0 || separator > end) {
+                separator = end;
+            }
+
+            final int value;
+
+            try {
+                value = Integer.parseInt(sequence, offset, separator, 10);
+            } catch (NumberFormatException ex) {
+                result.errorOffset = offset;
+
+                return result;
+            }
+
+            if (result.count == result.values.length) {
+                result.values = Arrays.copyOf(result.values, result.count * 2);
+            }
+
+            result.values[result.count] = value;
+            result.count++;
+
+            if (separator == end) {
+                return result;
+            }
+
+            offset = separator + SEPARATOR.length();
+        }
+    }
+
     /**
      * Determines if the sequence of instructions is valid. A valid sequence
      * consists of characters:
-     * 'R', 'F' and 'B' in any order.
+     * 'R', 'F', 'B' and 'M' in any order, each optionally followed by a decimal
+     * repeat count no greater than {@link Integer#MAX_VALUE}.
      * 
      * @param instructions instruction string
      * @return {@code true} if instructions are valid, {@code false} otherwise
@@ -200,7 +612,9 @@ public final class Decode {
      * Recursively determines if a sequence of instructions is valid.
      * 
      * This method provides the implementation details for the
-     * {@code isValid(String)} method of the public interface.
+     * {@code isValid(String)} method of the public interface. Each recursive call
+     * consumes one run of identical instructions, so the recursion depth is
+     * proportional to the number of runs rather than the number of characters.
      * 
      * @param instructions instruction string
      * @param offset       the zero-based index from which validation begins
@@ -215,15 +629,35 @@ public final class Decode {
         } else {
             char instruction = instructions.charAt(offset);
 
-            if (instruction == 'R' || instruction == 'F' || instruction == 'B') {
-                // Recursive case: an instruction string whose first character is R,
-                // F, or B is valid if the remainder of its characters form a valid
+            if (instruction == 'R' || instruction == 'F' || instruction == 'B' || instruction == 'M') {
+                // Skip the run of identical instructions and their repeat counts
+
+                int next = offset;
+
+                while (next < length && instructions.charAt(next) == instruction) {
+                    final int countEnd = countEnd(instructions, next + 1, length);
+
+                    if (countEnd > next + 1) {
+                        try {
+                            Integer.parseInt(instructions, next + 1, countEnd, 10);
+                        } catch (NumberFormatException ex) {
+                            // Base case: a repeat count that overflows is invalid
+
+                            return false;
+                        }
+                    }
+
+                    next = countEnd;
+                }
+
+                // Recursive case: an instruction string whose first run is R, F, B,
+                // or M is valid if the remainder of its characters form a valid
                 // instruction string
 
-                return isValid(instructions, offset + 1, length);
+                return isValid(instructions, next, length);
             } else {
                 // Base case: an instruction string whose first character is neither
-                // R, F, nor B is invalid
+                // R, F, B, nor M is invalid
 
                 return false;
             }
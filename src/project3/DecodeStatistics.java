@@ -0,0 +1,386 @@
+package project3;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records per-stage measurements of the {@link Decode} pipeline. For every
+ * stage, the wall time, the number of bytes allocated and the number of
+ * elements processed are recorded into histograms, from which percentiles are
+ * reported once all runs are complete.
+ *
+ * Allocation is the sum over the calling thread and the workers of
+ * {@link #pool()}, so a stage that runs tasks on that pool (such as a parallel
+ * parse) is charged for their allocation. Work submitted to any other pool is
+ * not counted.
+ *
+ * A measurement is taken by calling {@link #begin()} before a stage and
+ * {@link #end(Stage, long)} after it. Both methods take time proportional to the
+ * parallelism of the pool and do not allocate. The {@link #DISABLED} instance
+ * ignores all measurements.
+ *
+ * @author Ishan Pranav
+ */
+final class DecodeStatistics {
+
+    /**
+     * Identifies a stage of the {@link Decode} pipeline.
+     *
+     * @author Ishan Pranav
+     */
+    enum Stage {
+        /** Reading the sequence and instructions; counts characters read. */
+        READ,
+
+        /** Validating the instructions; counts instruction characters. */
+        VALIDATE,
+
+        /**
+         * Parsing the sequence; counts sequence elements. Includes allocation by
+         * the workers of {@link DecodeStatistics#pool()}.
+         */
+        PARSE,
+
+        /** Decoding the sequence; counts sequence elements before decoding. */
+        DECODE,
+
+        /** Printing the decoded sequence; counts elements printed. */
+        PRINT
+    }
+
+    /**
+     * Provides a histogram of non-negative values with logarithmically sized
+     * buckets. Each power-of-two range is divided into 32 linear buckets, so a
+     * reported percentile is within about 3% of the recorded value.
+     *
+     * @author Ishan Pranav
+     */
+    private static final class Histogram {
+        private static final int SUB_BUCKET_BITS = 5;
+        private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+        private final long[] counts = new long[(Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT];
+
+        private long count;
+        private long sum;
+        private long maximum;
+
+        /**
+         * Records a value.
+         *
+         * @param value the non-negative value to record
+         */
+        public void record(long value) {
+            counts[index(value)]++;
+            count++;
+            sum += value;
+
+            if (value > maximum) {
+                maximum = value;
+            }
+        }
+
+        /**
+         * Returns the value below which the specified fraction of recorded values
+         * fall.
+         *
+         * @param quantile the fraction, between 0 and 1 inclusive
+         * @return the highest value equivalent to the percentile, or {@code 0} if
+         *         no values have been recorded
+         */
+        public long percentile(double quantile) {
+            final long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long total = 0;
+
+            for (int i = 0; i < counts.length; i++) {
+                total += counts[i];
+
+                if (total >= rank) {
+                    return Math.min(highestEquivalentValue(i), maximum);
+                }
+            }
+
+            return 0;
+        }
+
+        /**
+         * Returns the arithmetic mean of the recorded values.
+         *
+         * @return the mean, or {@code 0} if no values have been recorded
+         */
+        public double mean() {
+            if (count == 0) {
+                return 0;
+            } else {
+                return (double) sum / count;
+            }
+        }
+
+        /**
+         * Returns the bucket index of a value.
+         *
+         * @param value the non-negative value
+         * @return the bucket index
+         */
+        private static int index(long value) {
+            if (value < SUB_BUCKET_COUNT) {
+                return (int) value;
+            }
+
+            final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+            final int mantissa = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+
+            return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + mantissa;
+        }
+
+        /**
+         * Returns the largest value that maps to a bucket.
+         *
+         * @param index the bucket index
+         * @return the largest value in the bucket
+         */
+        private static long highestEquivalentValue(int index) {
+            if (index < SUB_BUCKET_COUNT) {
+                return index;
+            }
+
+            final int shift = index / SUB_BUCKET_COUNT - 1;
+            final long lowest = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+
+            return lowest + (1L << shift) - 1;
+        }
+    }
+
+    /** An instance that ignores all measurements. */
+    static final DecodeStatistics DISABLED = new DecodeStatistics(false);
+
+    private static final double[] QUANTILES = { 0.5, 0.99, 0.999 };
+    private static final String[] QUANTILE_NAMES = { "p50", "p99", "p999" };
+
+    private final boolean enabled;
+    private final com.sun.management.ThreadMXBean threads;
+    private final Histogram[] times = new Histogram[Stage.values().length];
+    private final Histogram[] allocations = new Histogram[Stage.values().length];
+    private final Histogram[] elements = new Histogram[Stage.values().length];
+    private final AtomicLongArray workers;
+    private final AtomicInteger workerCount = new AtomicInteger();
+
+    private long startTime;
+    private long startAllocation;
+    private ForkJoinPool pool;
+
+    /** Initializes a new instance of the {@link DecodeStatistics} class. */
+    DecodeStatistics() {
+        this(true);
+    }
+
+    /**
+     * Initializes a new instance of the {@link DecodeStatistics} class.
+     *
+     * @param enabled {@code true} if measurements are recorded; otherwise,
+     *                {@code false}
+     */
+    private DecodeStatistics(boolean enabled) {
+        this.enabled = enabled;
+
+        if (enabled && ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+            final com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory
+                    .getThreadMXBean();
+
+            if (bean.isThreadAllocatedMemorySupported()) {
+                bean.setThreadAllocatedMemoryEnabled(true);
+
+                threads = bean;
+            } else {
+                threads = null;
+            }
+        } else {
+            threads = null;
+        }
+
+        workers = new AtomicLongArray(threads == null ? 0 : ForkJoinPool.getCommonPoolParallelism());
+
+        for (int i = 0; i < times.length; i++) {
+            times[i] = new Histogram();
+            allocations[i] = new Histogram();
+            elements[i] = new Histogram();
+        }
+    }
+
+    /** Marks the beginning of a stage. */
+    void begin() {
+        if (enabled) {
+            startAllocation = allocatedBytes();
+            startTime = System.nanoTime();
+        }
+    }
+
+    /**
+     * Marks the end of a stage and records its measurements.
+     *
+     * @param stage    the stage that ended
+     * @param elements the number of elements processed by the stage
+     */
+    void end(Stage stage, long elements) {
+        if (enabled) {
+            final long time = System.nanoTime() - startTime;
+            final long allocation = allocatedBytes() - startAllocation;
+
+            times[stage.ordinal()].record(Math.max(0, time));
+            allocations[stage.ordinal()].record(Math.max(0, allocation));
+            this.elements[stage.ordinal()].record(elements);
+        }
+    }
+
+    /**
+     * Returns the pool on which parallel stages should run so that their
+     * allocation is recorded. The pool has the parallelism of the common pool;
+     * its workers are created on first use and live as long as the program.
+     *
+     * @return the measured pool, or the common pool if measurements are ignored
+     *         or allocation tracking is not supported
+     */
+    ForkJoinPool pool() {
+        if (workers.length() == 0) {
+            return ForkJoinPool.commonPool();
+        }
+
+        if (pool == null) {
+            final int parallelism = workers.length();
+
+            // Workers never time out and are never added to compensate for a
+            // blocked join, so every worker keeps one of the recorded slots
+
+            pool = new ForkJoinPool(parallelism, this::newWorker, null, false, 0, parallelism, 1, ignored -> true,
+                    Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+
+        return pool;
+    }
+
+    /**
+     * Creates a worker of the measured pool and records its identifier.
+     *
+     * @param owner the pool that owns the worker
+     * @return the worker
+     */
+    private ForkJoinWorkerThread newWorker(ForkJoinPool owner) {
+        final ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(owner);
+        final int slot = workerCount.getAndIncrement();
+
+        if (slot < workers.length()) {
+            workers.set(slot, worker.getId());
+        }
+
+        return worker;
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread and the workers
+     * of the measured pool. A worker created during a stage is charged for all of
+     * its allocation.
+     *
+     * @return the number of bytes allocated, or {@code 0} if allocation tracking
+     *         is not supported
+     */
+    private long allocatedBytes() {
+        if (threads == null) {
+            return 0;
+        }
+
+        long result = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+
+        for (int i = 0; i < workers.length(); i++) {
+            final long id = workers.get(i);
+
+            if (id != 0) {
+                result += Math.max(0, threads.getThreadAllocatedBytes(id));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Prints a human-readable table of percentiles.
+     *
+     * @param out the destination stream
+     */
+    void report(PrintStream out) {
+        out.printf(Locale.ROOT, "%-8s %6s %12s %12s %12s %14s %14s %12s%n", "stage", "runs", "p50 (ns)", "p99 (ns)",
+                "p999 (ns)", "p50 (bytes)", "p99 (bytes)", "p50 (elems)");
+
+        for (Stage stage : Stage.values()) {
+            final Histogram time = times[stage.ordinal()];
+            final Histogram allocation = allocations[stage.ordinal()];
+
+            out.printf(Locale.ROOT, "%-8s %6d %12d %12d %12d %14d %14d %12d%n", stage.name().toLowerCase(Locale.ROOT),
+                    time.count, time.percentile(0.5), time.percentile(0.99), time.percentile(0.999),
+                    allocation.percentile(0.5), allocation.percentile(0.99), elements[stage.ordinal()].percentile(0.5));
+        }
+    }
+
+    /**
+     * Writes a JSON summary of all histograms.
+     *
+     * @param writer the destination writer
+     * @throws IOException if the summary cannot be written
+     */
+    void writeJson(Writer writer) throws IOException {
+        writer.write("{\"stages\":{");
+
+        for (Stage stage : Stage.values()) {
+            if (stage.ordinal() > 0) {
+                writer.write(',');
+            }
+
+            writer.write('"');
+            writer.write(stage.name().toLowerCase(Locale.ROOT));
+            writer.write("\":{\"runs\":");
+            writer.write(Long.toString(times[stage.ordinal()].count));
+            writer.write(",\"timeNanos\":");
+            writeJson(writer, times[stage.ordinal()]);
+            writer.write(",\"allocatedBytes\":");
+            writeJson(writer, allocations[stage.ordinal()]);
+            writer.write(",\"elements\":");
+            writeJson(writer, elements[stage.ordinal()]);
+            writer.write('}');
+        }
+
+        writer.write("}}");
+        writer.write(System.lineSeparator());
+    }
+
+    /**
+     * Writes a JSON object that summarizes a histogram.
+     *
+     * @param writer    the destination writer
+     * @param histogram the histogram
+     * @throws IOException if the summary cannot be written
+     */
+    private static void writeJson(Writer writer, Histogram histogram) throws IOException {
+        writer.write('{');
+
+        for (int i = 0; i < QUANTILES.length; i++) {
+            writer.write('"');
+            writer.write(QUANTILE_NAMES[i]);
+            writer.write("\":");
+            writer.write(Long.toString(histogram.percentile(QUANTILES[i])));
+            writer.write(',');
+        }
+
+        writer.write("\"max\":");
+        writer.write(Long.toString(histogram.maximum));
+        writer.write(",\"mean\":");
+        writer.write(String.format(Locale.ROOT, "%.1f", histogram.mean()));
+        writer.write('}');
+    }
+}
@@ -0,0 +1,858 @@
+package project3;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * An mdeque whose mutations are recorded in a write-ahead journal so that its
+ * contents survive a crash of the virtual machine. Every successful
+ * {@code push...} and {@code pop...} operation appends one record to a
+ * memory-mapped, segmented log before it returns. When the journal is opened
+ * again, the latest snapshot is loaded and the remaining records are replayed
+ * through the ordinary {@link MDeque} operations, which rebuilds the linked
+ * list and the middle reference exactly.
+ *
+ * Records are written to the page cache as soon as they are appended, so they
+ * survive a crash of the process. Durability against a crash of the operating
+ * system is controlled by the sync interval: the active segment is forced to
+ * the storage device after every {@code syncInterval} records (group commit) or
+ * whenever {@link #sync()} is called. After every {@code compactionInterval}
+ * records, the whole mdeque is written to a snapshot and the segments it
+ * replaces are deleted, which bounds both the size of the log and the time
+ * spent replaying it.
+ *
+ * A record consists of a one-byte operation code, a four-byte payload length,
+ * a four-byte CRC-32C checksum of the operation code, length and payload and,
+ * for push operations, the payload produced by the {@link Codec}. The operation
+ * code is written last, so a record torn by a crash of the process reads as the
+ * end of the log. After a crash of the operating system, pages of the log may
+ * have reached the device in any order; replay therefore stops at the first
+ * record whose length is out of range or whose checksum does not match, and the
+ * log is truncated there. A record is appended before the mdeque is modified,
+ * so an operation that fails to reach the journal leaves the mdeque unchanged.
+ *
+ * The structure does not allow null as an element and is not thread-safe.
+ *
+ * @param <E> the type of elements held in this mdeque
+ *
+ * @author Ishan Pranav
+ */
+public class JournaledMDeque<E> implements Iterable<E>, AutoCloseable {
+
+    /**
+     * Converts elements to and from the bytes stored in the journal.
+     *
+     * @param <E> the type of elements converted by this codec
+     *
+     * @author Ishan Pranav
+     */
+    public interface Codec<E> {
+
+        /**
+         * Returns the number of bytes required to encode the specified item.
+         *
+         * @param item the element to encode
+         * @return the number of bytes written by {@link #write(ByteBuffer, Object)}
+         */
+        int length(E item);
+
+        /**
+         * Writes the encoded form of the specified item at the current position of
+         * the buffer.
+         *
+         * @param buffer the destination buffer
+         * @param item   the element to encode
+         */
+        void write(ByteBuffer buffer, E item);
+
+        /**
+         * Reads an element from the current position of the buffer.
+         *
+         * @param buffer the source buffer, limited to the encoded element
+         * @return the decoded element
+         */
+        E read(ByteBuffer buffer);
+    }
+
+    /** A codec for {@link Integer} elements. */
+    public static final Codec<Integer> INTEGER_CODEC = new Codec<Integer>() {
+        @Override
+        public int length(Integer item) {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, Integer item) {
+            buffer.putInt(item);
+        }
+
+        @Override
+        public Integer read(ByteBuffer buffer) {
+            return buffer.getInt();
+        }
+    };
+
+    private static final byte PUSH_FRONT = 1;
+    private static final byte PUSH_MIDDLE = 2;
+    private static final byte PUSH_BACK = 3;
+    private static final byte POP_FRONT = 4;
+    private static final byte POP_MIDDLE = 5;
+    private static final byte POP_BACK = 6;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_NAME = "snapshot.dat";
+    private static final String SNAPSHOT_TEMPORARY_NAME = "snapshot.tmp";
+
+    private static final int HEADER_LENGTH = 1 + Integer.BYTES + Integer.BYTES;
+
+    private final MDeque<E> deque = new MDeque<E>();
+    private final Path directory;
+    private final Codec<E> codec;
+    private final int segmentSize;
+    private final int syncInterval;
+    private final int compactionInterval;
+    private final CRC32C checksum = new CRC32C();
+
+    private long segmentNumber;
+    private FileChannel segmentChannel;
+    private MappedByteBuffer segment;
+    private int unsyncedRecords;
+    private int uncompactedRecords;
+
+    /**
+     * Opens the journal in the specified directory using the default segment
+     * size (64 MiB), sync interval (1024 records) and compaction interval
+     * (1048576 records), replaying any existing snapshot and log.
+     *
+     * @param directory the directory that holds the snapshot and log segments
+     * @param codec     the codec used to encode elements
+     * @throws IOException if the journal cannot be read or created
+     */
+    public JournaledMDeque(Path directory, Codec<E> codec) throws IOException {
+        this(directory, codec, 64 << 20, 1024, 1 << 20);
+    }
+
+    /**
+     * Opens the journal in the specified directory, replaying any existing
+     * snapshot and log.
+     *
+     * @param directory          the directory that holds the snapshot and log
+     *                           segments
+     * @param codec              the codec used to encode elements
+     * @param segmentSize        the size of each log segment, in bytes
+     * @param syncInterval       the number of records appended between forced
+     *                           writes to the storage device, or {@code 0} to
+     *                           force only when {@link #sync()} is called
+     * @param compactionInterval the number of records appended between
+     *                           snapshots, or {@code 0} to compact only when
+     *                           {@link #compact()} is called
+     * @throws IOException              if the journal cannot be read or created
+     * @throws IllegalArgumentException if {@code codec} is {@code null} or an
+     *                                  interval or size is out of range
+     */
+    public JournaledMDeque(Path directory, Codec<E> codec, int segmentSize, int syncInterval, int compactionInterval)
+            throws IOException {
+        if (codec == null) {
+            throw new IllegalArgumentException("Value cannot be null. Argument name: codec.");
+        }
+
+        if (segmentSize <= HEADER_LENGTH) {
+            throw new IllegalArgumentException("Segment size is too small. Argument name: segmentSize.");
+        }
+
+        if (syncInterval < 0) {
+            throw new IllegalArgumentException("Value cannot be negative. Argument name: syncInterval.");
+        }
+
+        if (compactionInterval < 0) {
+            throw new IllegalArgumentException("Value cannot be negative. Argument name: compactionInterval.");
+        }
+
+        this.directory = directory;
+        this.codec = codec;
+        this.segmentSize = segmentSize;
+        this.syncInterval = syncInterval;
+        this.compactionInterval = compactionInterval;
+
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    /**
+     * Returns the number of elements in this mdeque.
+     *
+     * @return the number of elements in this mdeque.
+     */
+    public int size() {
+        return deque.size();
+    }
+
+    /**
+     * Retrieves the first element of this mdeque.
+     *
+     * @return the front of this mdeque, or {@code null} if this mdeque is empty
+     */
+    public E peekFront() {
+        return deque.peekFront();
+    }
+
+    /**
+     * Retrieves the middle element of this mdeque.
+     *
+     * @return the middle of this mdeque, or {@code null} if this mdeque is empty
+     */
+    public E peekMiddle() {
+        return deque.peekMiddle();
+    }
+
+    /**
+     * Retrieves the back element of this mdeque.
+     *
+     * @return the back of this mdeque, or {@code null} if this mdeque is empty
+     */
+    public E peekBack() {
+        return deque.peekBack();
+    }
+
+    /**
+     * Inserts the specified item at the front of this mdeque.
+     *
+     * @param item the element to add
+     * @throws IllegalArgumentException if {@code item} is {@code null}
+     * @throws UncheckedIOException     if the journal cannot be written
+     */
+    public void pushFront(E item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Value cannot be null. Argument name: item.");
+        }
+
+        append(PUSH_FRONT, item);
+        deque.pushFront(item);
+        commit();
+    }
+
+    /**
+     * Inserts the specified item in the middle of this mdeque.
+     *
+     * @param item the element to add
+     * @throws IllegalArgumentException if {@code item} is {@code null}
+     * @throws UncheckedIOException     if the journal cannot be written
+     */
+    public void pushMiddle(E item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Value cannot be null. Argument name: item.");
+        }
+
+        append(PUSH_MIDDLE, item);
+        deque.pushMiddle(item);
+        commit();
+    }
+
+    /**
+     * Inserts the specified item at the back of this mdeque.
+     *
+     * @param item the element to add
+     * @throws IllegalArgumentException if {@code item} is {@code null}
+     * @throws UncheckedIOException     if the journal cannot be written
+     */
+    public void pushBack(E item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Value cannot be null. Argument name: item.");
+        }
+
+        append(PUSH_BACK, item);
+        deque.pushBack(item);
+        commit();
+    }
+
+    /**
+     * Retrieves and removes the first element of this mdeque.
+     *
+     * @return the front of this mdeque, or {@code null} if this mdeque is empty
+     * @throws UncheckedIOException if the journal cannot be written
+     */
+    public E popFront() {
+        if (deque.size() == 0) {
+            return null;
+        }
+
+        append(POP_FRONT, null);
+
+        final E result = deque.popFront();
+
+        commit();
+
+        return result;
+    }
+
+    /**
+     * Retrieves and removes the middle element of this mdeque.
+     *
+     * @return the middle of this mdeque, or {@code null} if this mdeque is empty
+     * @throws UncheckedIOException if the journal cannot be written
+     */
+    public E popMiddle() {
+        if (deque.size() == 0) {
+            return null;
+        }
+
+        append(POP_MIDDLE, null);
+
+        final E result = deque.popMiddle();
+
+        commit();
+
+        return result;
+    }
+
+    /**
+     * Retrieves and removes the back element of this mdeque.
+     *
+     * @return the back of this mdeque, or {@code null} if this mdeque is empty
+     * @throws UncheckedIOException if the journal cannot be written
+     */
+    public E popBack() {
+        if (deque.size() == 0) {
+            return null;
+        }
+
+        append(POP_BACK, null);
+
+        final E result = deque.popBack();
+
+        commit();
+
+        return result;
+    }
+
+    /**
+     * Forces all records appended so far to the storage device.
+     *
+     * @throws UncheckedIOException if the journal cannot be written
+     */
+    public void sync() {
+        segment.force();
+
+        unsyncedRecords = 0;
+    }
+
+    /**
+     * Writes the contents of this mdeque to a new snapshot and deletes the log
+     * segments that it replaces.
+     *
+     * @throws UncheckedIOException if the snapshot cannot be written
+     */
+    public void compact() {
+        try {
+            sync();
+
+            final long nextSegmentNumber = segmentNumber + 1;
+
+            writeSnapshot(nextSegmentNumber);
+            openSegment(nextSegmentNumber);
+            deleteSegmentsBefore(nextSegmentNumber);
+
+            uncompactedRecords = 0;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Forces all outstanding records to the storage device and releases the
+     * active log segment. The mdeque must not be modified after it is closed.
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (segmentChannel != null) {
+            segment.force();
+            segmentChannel.close();
+
+            segment = null;
+            segmentChannel = null;
+        }
+    }
+
+    /**
+     * Returns an iterator over the elements in this mdeque in proper sequence. The
+     * elements will be returned in order from front to back.
+     *
+     * @return an iterator over the elements in this mdeque in proper sequence
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return deque.iterator();
+    }
+
+    /**
+     * Returns an iterator over the elements in this mdeque in reverse sequential
+     * order. The elements will be returned in order from back to front.
+     *
+     * @return an iterator over the elements in this mdeque in reverse sequence
+     */
+    public Iterator<E> reverseIterator() {
+        return deque.reverseIterator();
+    }
+
+    /**
+     * Returns a string representation of this mdeque.
+     *
+     * @return a string representation of this mdeque
+     * @see MDeque#toString()
+     */
+    @Override
+    public String toString() {
+        return deque.toString();
+    }
+
+    /**
+     * Appends a record to the active log segment, rolling over to a new segment
+     * as required. If the record cannot be written, the segment is left as it was
+     * before the call.
+     *
+     * @param operation the operation code
+     * @param item      the pushed element, or {@code null} for pop operations
+     */
+    private void append(byte operation, E item) {
+        int length = HEADER_LENGTH;
+
+        if (item != null) {
+            length += codec.length(item);
+        }
+
+        if (length > segmentSize) {
+            throw new IllegalArgumentException("Element is larger than a log segment. Argument name: item.");
+        }
+
+        try {
+            if (segment.remaining() < length) {
+                segment.force();
+                openSegment(segmentNumber + 1);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        final int start = segment.position();
+
+        // Write the payload first and the operation code last so that a torn
+        // record reads as the end of the log
+
+        try {
+            segment.position(start + 1);
+            segment.putInt(length - HEADER_LENGTH);
+            segment.position(start + HEADER_LENGTH);
+
+            if (item != null) {
+                codec.write(segment, item);
+            }
+
+            if (segment.position() != start + length) {
+                // Every later record would be misaligned
+
+                throw new IllegalStateException("Codec wrote an unexpected number of bytes.");
+            }
+
+            segment.putInt(start + 1 + Integer.BYTES, checksum(segment, operation, start, length - HEADER_LENGTH));
+        } catch (RuntimeException ex) {
+            // Erase the partial payload so that a shorter record written in its
+            // place is not followed by bytes that read as operation codes
+
+            for (int i = start; i < segment.position(); i++) {
+                segment.put(i, (byte) 0);
+            }
+
+            segment.position(start);
+
+            throw ex;
+        }
+
+        segment.put(start, operation);
+    }
+
+    /**
+     * Computes the checksum of a record from its operation code, its payload
+     * length and the payload in the buffer.
+     *
+     * @param buffer    the segment that holds the record
+     * @param operation the operation code
+     * @param start     the position of the record
+     * @param length    the payload length, which must lie within the buffer
+     * @return the CRC-32C checksum of the record; the buffer is positioned after
+     *         the payload
+     */
+    private int checksum(ByteBuffer buffer, byte operation, int start, int length) {
+        final int limit = buffer.limit();
+
+        checksum.reset();
+        checksum.update(operation);
+
+        for (int shift = Integer.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+            checksum.update(length >>> shift);
+        }
+
+        buffer.limit(start + HEADER_LENGTH + length);
+        buffer.position(start + HEADER_LENGTH);
+        checksum.update(buffer);
+        buffer.limit(limit);
+
+        return (int) checksum.getValue();
+    }
+
+    /**
+     * Completes an operation whose record has been appended and applied, forcing
+     * and compacting the journal as required.
+     */
+    private void commit() {
+        if (syncInterval != 0 && ++unsyncedRecords >= syncInterval) {
+            sync();
+        }
+
+        if (compactionInterval != 0 && ++uncompactedRecords >= compactionInterval) {
+            compact();
+        }
+    }
+
+    /**
+     * Rebuilds the mdeque from the latest snapshot and the log segments written
+     * after it, then reopens the last segment for appending.
+     *
+     * @throws IOException if the journal cannot be read
+     */
+    private void recover() throws IOException {
+        final long firstSegmentNumber = readSnapshot();
+        long lastSegmentNumber = -1;
+        int end = 0;
+        boolean damaged = false;
+
+        for (long number : listSegments()) {
+            if (number >= firstSegmentNumber) {
+                if (damaged) {
+                    // Records after a damaged record were appended after it, so
+                    // they cannot be applied without it
+
+                    Files.delete(segmentPath(number));
+                } else {
+                    end = replay(number);
+                    damaged = end < 0;
+                    lastSegmentNumber = number;
+
+                    if (damaged) {
+                        end = ~end;
+                    }
+                }
+            }
+        }
+
+        if (damaged) {
+            syncDirectory();
+        }
+
+        deleteSegmentsBefore(firstSegmentNumber);
+
+        if (lastSegmentNumber < 0) {
+            openSegment(firstSegmentNumber);
+
+            return;
+        }
+
+        // Discard a torn or damaged record at the end of the log so that new
+        // records are never followed by its bytes
+
+        try (FileChannel channel = FileChannel.open(segmentPath(lastSegmentNumber), StandardOpenOption.WRITE)) {
+            channel.truncate(end);
+            channel.force(true);
+        }
+
+        if (end + HEADER_LENGTH > segmentSize) {
+            openSegment(lastSegmentNumber + 1);
+        } else {
+            // Continue after the last valid record
+
+            openSegment(lastSegmentNumber);
+            segment.position(end);
+        }
+    }
+
+    /**
+     * Loads the snapshot, if any, into the mdeque.
+     *
+     * @return the number of the first log segment written after the snapshot
+     * @throws IOException if the snapshot cannot be read
+     */
+    private long readSnapshot() throws IOException {
+        final Path path = directory.resolve(SNAPSHOT_NAME);
+
+        if (!Files.exists(path)) {
+            return 0;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            final long result = buffer.getLong();
+            final int count = buffer.getInt();
+
+            for (int i = 0; i < count; i++) {
+                final int length = buffer.getInt();
+                final int end = buffer.position() + length;
+                final ByteBuffer element = buffer.slice().limit(length);
+
+                deque.pushBack(codec.read(element));
+                buffer.position(end);
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * Writes the contents of the mdeque to a temporary file and atomically
+     * replaces the snapshot with it.
+     *
+     * The directory is forced after the rename, so the old segments may be
+     * deleted once this method returns.
+     *
+     * @param nextSegmentNumber the number of the first log segment written after
+     *                          the snapshot
+     * @throws IOException if the snapshot cannot be written
+     */
+    private void writeSnapshot(long nextSegmentNumber) throws IOException {
+        final Path temporary = directory.resolve(SNAPSHOT_TEMPORARY_NAME);
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer.putLong(nextSegmentNumber);
+            buffer.putInt(deque.size());
+
+            for (E item : deque) {
+                final int length = codec.length(item);
+
+                if (buffer.remaining() < Integer.BYTES + length) {
+                    write(channel, buffer);
+                }
+
+                if (buffer.remaining() < Integer.BYTES + length) {
+                    // The element does not fit in the shared buffer
+
+                    final ByteBuffer large = ByteBuffer.allocate(Integer.BYTES + length);
+
+                    large.putInt(length);
+                    codec.write(large, item);
+                    write(channel, large);
+                } else {
+                    buffer.putInt(length);
+                    codec.write(buffer, item);
+                }
+            }
+
+            write(channel, buffer);
+            channel.force(true);
+        }
+
+        Files.move(temporary, directory.resolve(SNAPSHOT_NAME), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+    }
+
+    /**
+     * Forces the entries of the journal directory to the storage device, so that
+     * files created or renamed in it survive a crash of the operating system.
+     *
+     * @throws IOException if the directory cannot be forced
+     */
+    private void syncDirectory() throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Writes and clears the contents of a buffer.
+     *
+     * @param channel the destination channel
+     * @param buffer  the buffer, in write mode
+     * @throws IOException if the channel cannot be written
+     */
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+
+    /**
+     * Applies the valid records of a log segment to the mdeque, stopping at the
+     * end of the log or at the first damaged record.
+     *
+     * @param number the segment number
+     * @return the position that follows the last valid record, or the bitwise
+     *         complement of that position if the record there is damaged
+     * @throws IOException if the segment cannot be read
+     */
+    private int replay(long number) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(number), StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            while (buffer.remaining() >= HEADER_LENGTH) {
+                final int start = buffer.position();
+                final byte operation = buffer.get();
+                final int length = buffer.getInt();
+                final int expected = buffer.getInt();
+
+                if (operation == 0 && length == 0 && expected == 0) {
+                    // End of the log
+
+                    return start;
+                }
+
+                if (operation < PUSH_FRONT || operation > POP_BACK || length < 0 || length > buffer.remaining()
+                        || (operation >= POP_FRONT && length != 0)
+                        || checksum(buffer, operation, start, length) != expected) {
+                    return ~start;
+                }
+
+                buffer.position(start + HEADER_LENGTH);
+
+                switch (operation) {
+                    case PUSH_FRONT:
+                        deque.pushFront(read(buffer, length));
+                        break;
+
+                    case PUSH_MIDDLE:
+                        deque.pushMiddle(read(buffer, length));
+                        break;
+
+                    case PUSH_BACK:
+                        deque.pushBack(read(buffer, length));
+                        break;
+
+                    case POP_FRONT:
+                        deque.popFront();
+                        break;
+
+                    case POP_MIDDLE:
+                        deque.popMiddle();
+                        break;
+
+                    case POP_BACK:
+                        deque.popBack();
+                        break;
+                }
+            }
+
+            return buffer.position();
+        }
+    }
+
+    /**
+     * Decodes the payload of a push record.
+     *
+     * @param buffer the segment, positioned at the payload
+     * @param length the payload length
+     * @return the decoded element
+     */
+    private E read(ByteBuffer buffer, int length) {
+        final int end = buffer.position() + length;
+        final E result = codec.read(buffer.slice().limit(length));
+
+        buffer.position(end);
+
+        return result;
+    }
+
+    /**
+     * Maps the specified log segment as the active segment, creating it if
+     * necessary.
+     *
+     * @param number the segment number
+     * @throws IOException if the segment cannot be opened
+     */
+    private void openSegment(long number) throws IOException {
+        final Path path = segmentPath(number);
+        final boolean created = !Files.exists(path);
+
+        if (segmentChannel != null) {
+            segmentChannel.close();
+        }
+
+        segmentNumber = number;
+        segmentChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        segment = segmentChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+
+        if (created) {
+            // Forcing the records of a segment is of no use unless the segment
+            // itself survives a crash of the operating system
+
+            syncDirectory();
+        }
+    }
+
+    /**
+     * Deletes every log segment whose number precedes the specified number.
+     *
+     * @param number the number of the first segment to keep
+     * @throws IOException if a segment cannot be deleted
+     */
+    private void deleteSegmentsBefore(long number) throws IOException {
+        for (long existing : listSegments()) {
+            if (existing < number) {
+                Files.deleteIfExists(segmentPath(existing));
+            }
+        }
+    }
+
+    /**
+     * Lists the numbers of the log segments in the journal directory.
+     *
+     * @return the segment numbers, in ascending order
+     * @throws IOException if the directory cannot be read
+     */
+    private List<Long> listSegments() throws IOException {
+        final List<Long> result = new ArrayList<Long>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                final String name = path.getFileName().toString();
+
+                result.add(Long.parseLong(
+                        name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+            }
+        }
+
+        Collections.sort(result);
+
+        return result;
+    }
+
+    /**
+     * Returns the path of the specified log segment.
+     *
+     * @param number the segment number
+     * @return the path of the segment
+     */
+    private Path segmentPath(long number) {
+        return directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+}
@@ -557,6 +557,165 @@ public class MDeque<E> implements Iterable<E> {
         }
     }
 
+    /**
+     * Removes the elements whose positions are between {@code fromIndex},
+     * inclusive, and {@code toIndex}, exclusive. The position count is zero based.
+     * 
+     * The removed elements are unlinked as one chain, so the method does not visit
+     * them. It runs in time proportional to the distance from each end of the
+     * range to the nearest of the front, middle, or back, plus the distance from
+     * the new middle to the nearest surviving reference. For example, removing all
+     * but one element from the front takes constant time. Removing {@code n}
+     * elements from one end of an mdeque with {@code m} elements remaining takes
+     * time proportional to the smaller of {@code n} and {@code m}, since the
+     * middle moves by half of the elements removed.
+     * 
+     * @param fromIndex the position of the first element to remove
+     * @param toIndex   the position after the last element to remove
+     * @throws IndexOutOfBoundsException if {@code fromIndex} is negative,
+     *                                   {@code toIndex} is greater than the size
+     *                                   of this mdeque, or {@code fromIndex} is
+     *                                   greater than {@code toIndex}
+     */
+    public void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > count || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("Range [" + fromIndex + ", " + toIndex
+                    + ") is out of bounds for size " + count + ".");
+        }
+
+        final int removed = toIndex - fromIndex;
+
+        if (removed == 0) {
+            return;
+        }
+
+        if (removed == count) {
+            // Remove every element; the detached nodes are unreachable
+
+            head = null;
+            body = null;
+            tail = null;
+            count = 0;
+            version++;
+
+            return;
+        }
+
+        final int bodyIndex = count / 2;
+        final MDequeNode first = nodeAt(fromIndex, null, 0);
+        final MDequeNode last;
+
+        if (removed - 1 <= distance(toIndex - 1)) {
+            last = nodeAt(toIndex - 1, first, fromIndex);
+        } else {
+            last = nodeAt(toIndex - 1, null, 0);
+        }
+        final MDequeNode before = first.previous;
+        final MDequeNode after = last.next;
+
+        // List:
+        // ... [before] <-> [first] <-> ... <-> [last] <-> [after] ...
+
+        if (before == null) {
+            head = after;
+        } else {
+            before.next = after;
+        }
+
+        if (after == null) {
+            tail = before;
+        } else {
+            after.previous = before;
+        }
+
+        // Lists:
+        // ... [before] <-------------------------------> [after] ...
+        // [first] <-> ... <-> [last]
+
+        first.previous = null;
+        last.next = null;
+
+        count -= removed;
+        version++;
+
+        // Relocate the body, starting from the nearest surviving reference: the
+        // head, the tail, the node after the removed range, or the old body
+
+        final int target = count / 2;
+        MDequeNode origin = head;
+        int originIndex = 0;
+
+        if (count - 1 - target < target - originIndex) {
+            origin = tail;
+            originIndex = count - 1;
+        }
+
+        if (after != null && Math.abs(fromIndex - target) < Math.abs(originIndex - target)) {
+            origin = after;
+            originIndex = fromIndex;
+        }
+
+        if (bodyIndex < fromIndex || bodyIndex >= toIndex) {
+            final int newBodyIndex = bodyIndex < fromIndex ? bodyIndex : bodyIndex - removed;
+
+            if (Math.abs(newBodyIndex - target) < Math.abs(originIndex - target)) {
+                origin = body;
+                originIndex = newBodyIndex;
+            }
+        }
+
+        body = nodeAt(target, origin, originIndex);
+    }
+
+    /**
+     * Returns the distance from the specified position to the nearest of the head,
+     * the body, and the tail.
+     * 
+     * @param index the zero-based position
+     * @return the number of links between the position and the nearest reference
+     */
+    private int distance(int index) {
+        return Math.min(Math.min(index, Math.abs(count / 2 - index)), count - 1 - index);
+    }
+
+    /**
+     * Finds the node at the specified position by walking from the given node or,
+     * if none is given, from the nearest of the head, the body, and the tail.
+     * 
+     * @param index       the zero-based position of the node
+     * @param origin      the node to walk from, or {@code null}
+     * @param originIndex the position of {@code origin}
+     * @return the node at the specified position
+     */
+    private MDequeNode nodeAt(int index, MDequeNode origin, int originIndex) {
+        if (origin == null) {
+            origin = head;
+            originIndex = 0;
+
+            if (Math.abs(count / 2 - index) < index) {
+                origin = body;
+                originIndex = count / 2;
+            }
+
+            if (count - 1 - index < Math.abs(originIndex - index)) {
+                origin = tail;
+                originIndex = count - 1;
+            }
+        }
+
+        while (originIndex < index) {
+            origin = origin.next;
+            originIndex++;
+        }
+
+        while (originIndex > index) {
+            origin = origin.previous;
+            originIndex--;
+        }
+
+        return origin;
+    }
+
     /**
      * Truncates the mdeque's linked list and returns the first element.
      * 
@@ -646,7 +805,7 @@ public class MDeque<E> implements Iterable<E> {
     private void toString(StringBuilder builder, MDequeNode current) {
         // Append next element
 
-        builder.append(current);
+        builder.append(current.value);
 
         if (current.next == null) {
             // Base case: terminate
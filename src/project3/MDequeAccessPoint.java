@@ -0,0 +1,67 @@
+package project3;
+
+/**
+ * Identifies one of the three points at which elements are inserted into and
+ * removed from an {@link MDeque}.
+ *
+ * @author Ishan Pranav
+ */
+public enum MDequeAccessPoint {
+    /** The front of the mdeque. */
+    FRONT {
+        @Override
+        public <E> void push(MDeque<E> deque, E item) {
+            deque.pushFront(item);
+        }
+
+        @Override
+        public <E> E pop(MDeque<E> deque) {
+            return deque.popFront();
+        }
+    },
+
+    /** The middle of the mdeque. */
+    MIDDLE {
+        @Override
+        public <E> void push(MDeque<E> deque, E item) {
+            deque.pushMiddle(item);
+        }
+
+        @Override
+        public <E> E pop(MDeque<E> deque) {
+            return deque.popMiddle();
+        }
+    },
+
+    /** The back of the mdeque. */
+    BACK {
+        @Override
+        public <E> void push(MDeque<E> deque, E item) {
+            deque.pushBack(item);
+        }
+
+        @Override
+        public <E> E pop(MDeque<E> deque) {
+            return deque.popBack();
+        }
+    };
+
+    /**
+     * Inserts the specified item into an mdeque at this point of access.
+     *
+     * @param <E>   the type of elements held in the mdeque
+     * @param deque the mdeque
+     * @param item  the element to add
+     * @throws IllegalArgumentException if {@code item} is {@code null}
+     */
+    public abstract <E> void push(MDeque<E> deque, E item);
+
+    /**
+     * Retrieves and removes the element of an mdeque at this point of access.
+     *
+     * @param <E>   the type of elements held in the mdeque
+     * @param deque the mdeque
+     * @return the removed element, or {@code null} if the mdeque is empty
+     */
+    public abstract <E> E pop(MDeque<E> deque);
+}
@@ -0,0 +1,434 @@
+package project3;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link Flow.Publisher} that drains an mdeque from a chosen point of access
+ * to a single subscriber, according to the subscriber's demand.
+ *
+ * Producers insert elements with {@link #offer(MDequeAccessPoint, Object)},
+ * which refuses elements once the mdeque holds {@code capacity} of them, or
+ * with {@link #put(MDequeAccessPoint, Object)}, which waits until a delivery
+ * pass makes room for them. The
+ * elements are delivered on the given executor: each pass removes up to
+ * {@code batchSize} elements under one acquisition of the mdeque's lock and
+ * delivers them without holding it. A pass is scheduled only when elements are
+ * offered, demand is signalled, or the publisher is closed, so neither side
+ * waits by polling.
+ *
+ * Only one subscriber may be active at a time; another subscriber receives an
+ * {@link IllegalStateException} through {@code onError}. Signals to the
+ * subscriber are never concurrent: no element is delivered until
+ * {@code onSubscribe} has returned, even if it requests elements. If
+ * {@code onNext} throws, the subscription is cancelled, the elements of the
+ * batch that were not delivered are returned to the mdeque, and the exception is
+ * delivered through {@code onError}; an {@link Error} is then rethrown on the
+ * executor. After
+ * {@link #close()}, the subscriber receives the remaining elements followed by
+ * {@code onComplete}.
+ *
+ * @param <E> the type of elements held in this publisher's mdeque
+ *
+ * @author Ishan Pranav
+ */
+public class MDequePublisher<E> implements Flow.Publisher<E> {
+
+    /**
+     * Provides the subscription of the active subscriber and the loop that
+     * delivers elements to it.
+     *
+     * @author Ishan Pranav
+     */
+    private class DrainSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super E> subscriber;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger passes = new AtomicInteger();
+        private final Object[] batch = new Object[batchSize];
+
+        private volatile boolean cancelled;
+        private volatile boolean invalidRequest;
+
+        /**
+         * Initializes a new instance of the {@link DrainSubscription} class.
+         *
+         * @param subscriber the subscriber
+         */
+        public DrainSubscription(Flow.Subscriber<? super E> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        /**
+         * Adds to the number of elements the subscriber is ready to receive.
+         *
+         * @param n the number of additional elements; a non-positive value fails
+         *          the subscription
+         */
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = true;
+            } else {
+                long current;
+                long next;
+
+                do {
+                    current = requested.get();
+                    next = current + n;
+
+                    if (next < 0) {
+                        next = Long.MAX_VALUE;
+                    }
+                } while (!requested.compareAndSet(current, next));
+            }
+
+            schedule();
+        }
+
+        /** Stops the delivery of elements. Undelivered elements remain in the mdeque. */
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        /** Schedules a delivery pass unless one is already running. */
+        public void schedule() {
+            if (passes.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        /**
+         * Delivers elements until demand, elements, or scheduled passes run out.
+         *
+         * @throws Error if {@code onNext} throws an error, after the subscription
+         *               has been failed
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        public void run() {
+            int missed = 1;
+            Error fatal = null;
+
+            do {
+                final long demand = requested.get();
+                long emitted = 0;
+
+                while (!cancelled && !invalidRequest && emitted < demand) {
+                    final int limit = (int) Math.min(batch.length, demand - emitted);
+                    int count = 0;
+
+                    synchronized (deque) {
+                        while (count < limit && deque.size() > 0) {
+                            batch[count] = popPoint.pop(deque);
+                            count++;
+                        }
+
+                        if (count > 0) {
+                            // Wake producers waiting for room
+
+                            deque.notifyAll();
+                        }
+                    }
+
+                    if (count == 0) {
+                        break;
+                    }
+
+                    for (int i = 0; i < count; i++) {
+                        final E item = (E) batch[i];
+
+                        batch[i] = null;
+
+                        try {
+                            subscriber.onNext(item);
+                        } catch (RuntimeException | Error ex) {
+                            // An error must not leave the passes counted, or no
+                            // further pass would ever be scheduled
+
+                            if (ex instanceof Error) {
+                                fatal = (Error) ex;
+                            }
+
+                            fail(ex, i + 1, count);
+
+                            break;
+                        }
+                    }
+
+                    emitted += count;
+                }
+
+                if (emitted > 0 && demand != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+
+                if (!cancelled) {
+                    if (invalidRequest) {
+                        cancelled = true;
+
+                        subscriber.onError(new IllegalArgumentException("Requested count must be positive."));
+                    } else {
+                        final boolean finished;
+
+                        synchronized (deque) {
+                            finished = closed && deque.size() == 0;
+                        }
+
+                        if (finished) {
+                            cancelled = true;
+
+                            subscriber.onComplete();
+                        }
+                    }
+                }
+
+                missed = passes.addAndGet(-missed);
+            } while (missed != 0);
+
+            if (fatal != null) {
+                throw fatal;
+            }
+        }
+
+        /**
+         * Cancels the subscription after {@code onNext} has thrown, returns the
+         * undelivered elements of the batch to the mdeque, and delivers the
+         * exception through {@code onError}.
+         *
+         * @param error the exception thrown by {@code onNext}
+         * @param from  the index of the first undelivered element of the batch
+         * @param count the number of elements in the batch
+         */
+        @SuppressWarnings("unchecked")
+        private void fail(Throwable error, int from, int count) {
+            cancelled = true;
+
+            synchronized (deque) {
+                // Inserting at the point of removal in reverse order restores the
+                // original positions, even in the middle
+
+                for (int i = count - 1; i >= from; i--) {
+                    popPoint.push(deque, (E) batch[i]);
+
+                    batch[i] = null;
+                }
+            }
+
+            subscriber.onError(error);
+        }
+    }
+
+    private final MDeque<E> deque = new MDeque<E>();
+    private final MDequeAccessPoint popPoint;
+    private final int capacity;
+    private final int batchSize;
+    private final Executor executor;
+
+    private boolean closed;
+    private DrainSubscription subscription;
+
+    /**
+     * Initializes a new instance of the {@link MDequePublisher} class that
+     * delivers elements on the common fork-join pool.
+     *
+     * @param popPoint  the point from which elements are delivered
+     * @param capacity  the maximum number of buffered elements
+     * @param batchSize the maximum number of elements removed per lock
+     *                  acquisition
+     * @throws IllegalArgumentException if {@code popPoint} is {@code null} or
+     *                                  {@code capacity} or {@code batchSize} is
+     *                                  less than 1
+     */
+    public MDequePublisher(MDequeAccessPoint popPoint, int capacity, int batchSize) {
+        this(popPoint, capacity, batchSize, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Initializes a new instance of the {@link MDequePublisher} class.
+     *
+     * @param popPoint  the point from which elements are delivered
+     * @param capacity  the maximum number of buffered elements
+     * @param batchSize the maximum number of elements removed per lock
+     *                  acquisition
+     * @param executor  the executor on which elements are delivered
+     * @throws IllegalArgumentException if {@code popPoint} or {@code executor} is
+     *                                  {@code null} or {@code capacity} or
+     *                                  {@code batchSize} is less than 1
+     */
+    public MDequePublisher(MDequeAccessPoint popPoint, int capacity, int batchSize, Executor executor) {
+        if (popPoint == null) {
+            throw new IllegalArgumentException("Value cannot be null. Argument name: popPoint.");
+        }
+
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Value is out of range. Argument name: capacity.");
+        }
+
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Value is out of range. Argument name: batchSize.");
+        }
+
+        if (executor == null) {
+            throw new IllegalArgumentException("Value cannot be null. Argument name: executor.");
+        }
+
+        this.popPoint = popPoint;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.executor = executor;
+    }
+
+    /**
+     * Inserts an element for delivery, unless the mdeque is full.
+     *
+     * @param pushPoint the point at which the element is inserted
+     * @param item      the element to add
+     * @return {@code true} if the element was added, or {@code false} if the
+     *         mdeque is full
+     * @throws IllegalArgumentException if {@code item} is {@code null}
+     * @throws IllegalStateException    if the publisher has been closed
+     */
+    public boolean offer(MDequeAccessPoint pushPoint, E item) {
+        final DrainSubscription current;
+
+        synchronized (deque) {
+            if (closed) {
+                throw new IllegalStateException("Publisher is closed.");
+            }
+
+            if (deque.size() >= capacity) {
+                return false;
+            }
+
+            pushPoint.push(deque, item);
+
+            current = subscription;
+        }
+
+        if (current != null) {
+            current.schedule();
+        }
+
+        return true;
+    }
+
+    /**
+     * Inserts an element for delivery, waiting until the mdeque has room for it.
+     *
+     * @param pushPoint the point at which the element is inserted
+     * @param item      the element to add
+     * @throws IllegalArgumentException if {@code item} is {@code null}
+     * @throws IllegalStateException    if the publisher is closed before the
+     *                                  element is added
+     * @throws InterruptedException     if the thread is interrupted while waiting
+     */
+    public void put(MDequeAccessPoint pushPoint, E item) throws InterruptedException {
+        if (item == null) {
+            throw new IllegalArgumentException("Value cannot be null. Argument name: item.");
+        }
+
+        final DrainSubscription current;
+
+        synchronized (deque) {
+            while (!closed && deque.size() >= capacity) {
+                deque.wait();
+            }
+
+            if (closed) {
+                throw new IllegalStateException("Publisher is closed.");
+            }
+
+            pushPoint.push(deque, item);
+
+            current = subscription;
+        }
+
+        if (current != null) {
+            current.schedule();
+        }
+    }
+
+    /**
+     * Returns the number of elements waiting for delivery.
+     *
+     * @return the number of buffered elements
+     */
+    public int size() {
+        synchronized (deque) {
+            return deque.size();
+        }
+    }
+
+    /**
+     * Stops accepting elements and completes the subscriber once the mdeque is
+     * drained. Producers waiting in {@link #put(MDequeAccessPoint, Object)} fail.
+     */
+    public void close() {
+        final DrainSubscription current;
+
+        synchronized (deque) {
+            closed = true;
+            current = subscription;
+
+            deque.notifyAll();
+        }
+
+        if (current != null) {
+            current.schedule();
+        }
+    }
+
+    /**
+     * Adds the subscriber if no other subscriber is active.
+     *
+     * @param subscriber the subscriber
+     * @throws NullPointerException if {@code subscriber} is {@code null}
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super E> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Value cannot be null. Argument name: subscriber.");
+        }
+
+        final DrainSubscription created = new DrainSubscription(subscriber);
+        final boolean accepted;
+
+        // Hold a pass while onSubscribe runs, so that a request or an offer made
+        // meanwhile is counted instead of delivering concurrently (rule 1.3)
+
+        created.passes.set(1);
+
+        synchronized (deque) {
+            accepted = subscription == null || subscription.cancelled;
+
+            if (accepted) {
+                subscription = created;
+            }
+        }
+
+        if (accepted) {
+            try {
+                subscriber.onSubscribe(created);
+            } catch (RuntimeException | Error ex) {
+                // The subscriber is in an undefined state (rule 2.13)
+
+                created.cancelled = true;
+
+                throw ex;
+            } finally {
+                // Run the held pass together with any that were missed
+
+                executor.execute(created);
+            }
+        } else {
+            created.cancelled = true;
+
+            subscriber.onSubscribe(created);
+            subscriber.onError(new IllegalStateException("Publisher already has a subscriber."));
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package project3;
+
+import java.util.concurrent.Flow;
+
+/**
+ * A {@link Flow.Subscriber} that fills an mdeque at a chosen point of access
+ * and requests more elements from upstream only as the mdeque has room for
+ * them.
+ *
+ * The subscriber never holds more than {@code capacity} elements, counting
+ * both those in the mdeque and those requested but not yet delivered. On
+ * subscription it requests {@code prefetch} elements. Whenever elements are
+ * removed and at least {@code batchSize} slots are free, it requests enough
+ * elements to fill them, so demand is signalled in batches rather than one
+ * element at a time.
+ *
+ * Elements are removed with {@link #poll(MDequeAccessPoint)}, which does not
+ * block, or {@link #take(MDequeAccessPoint)}, which waits for an element or
+ * the end of the stream. All methods are thread-safe.
+ *
+ * @param <E> the type of elements held in this subscriber's mdeque
+ *
+ * @author Ishan Pranav
+ */
+public class MDequeSubscriber<E> implements Flow.Subscriber<E> {
+    private final MDeque<E> deque = new MDeque<E>();
+    private final MDequeAccessPoint pushPoint;
+    private final int capacity;
+    private final int prefetch;
+    private final int batchSize;
+
+    private Flow.Subscription subscription;
+    private long outstanding;
+    private boolean done;
+    private Throwable error;
+
+    /**
+     * Initializes a new instance of the {@link MDequeSubscriber} class.
+     *
+     * @param pushPoint the point at which received elements are inserted
+     * @param capacity  the maximum number of buffered and requested elements
+     * @param prefetch  the number of elements requested on subscription
+     * @param batchSize the minimum number of free slots before more elements are
+     *                  requested
+     * @throws IllegalArgumentException if {@code pushPoint} is {@code null},
+     *                                  {@code capacity} is less than 1, or
+     *                                  {@code prefetch} or {@code batchSize} is
+     *                                  not between 1 and {@code capacity}
+     */
+    public MDequeSubscriber(MDequeAccessPoint pushPoint, int capacity, int prefetch, int batchSize) {
+        if (pushPoint == null) {
+            throw new IllegalArgumentException("Value cannot be null. Argument name: pushPoint.");
+        }
+
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Value is out of range. Argument name: capacity.");
+        }
+
+        if (prefetch < 1 || prefetch > capacity) {
+            throw new IllegalArgumentException("Value is out of range. Argument name: prefetch.");
+        }
+
+        if (batchSize < 1 || batchSize > capacity) {
+            throw new IllegalArgumentException("Value is out of range. Argument name: batchSize.");
+        }
+
+        this.pushPoint = pushPoint;
+        this.capacity = capacity;
+        this.prefetch = prefetch;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Receives the subscription and requests the initial elements. A second
+     * subscription is cancelled.
+     *
+     * @param subscription the subscription
+     */
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        synchronized (deque) {
+            if (this.subscription != null) {
+                subscription.cancel();
+
+                return;
+            }
+
+            this.subscription = subscription;
+            outstanding = prefetch;
+        }
+
+        subscription.request(prefetch);
+    }
+
+    /**
+     * Inserts a received element into the mdeque.
+     *
+     * @param item the element
+     * @throws NullPointerException if {@code item} is {@code null}
+     */
+    @Override
+    public void onNext(E item) {
+        if (item == null) {
+            throw new NullPointerException("Value cannot be null. Argument name: item.");
+        }
+
+        synchronized (deque) {
+            pushPoint.push(deque, item);
+
+            if (outstanding > 0) {
+                outstanding--;
+            }
+
+            deque.notifyAll();
+        }
+    }
+
+    /**
+     * Records that the stream failed. Elements already received remain available.
+     *
+     * @param throwable the error
+     */
+    @Override
+    public void onError(Throwable throwable) {
+        synchronized (deque) {
+            error = throwable;
+            done = true;
+
+            deque.notifyAll();
+        }
+    }
+
+    /** Records that the stream completed. Elements already received remain available. */
+    @Override
+    public void onComplete() {
+        synchronized (deque) {
+            done = true;
+
+            deque.notifyAll();
+        }
+    }
+
+    /**
+     * Returns the number of elements in the mdeque.
+     *
+     * @return the number of buffered elements
+     */
+    public int size() {
+        synchronized (deque) {
+            return deque.size();
+        }
+    }
+
+    /**
+     * Returns {@code true} if the stream has completed or failed.
+     *
+     * @return {@code true} if no more elements will be received
+     */
+    public boolean isDone() {
+        synchronized (deque) {
+            return done;
+        }
+    }
+
+    /**
+     * Returns the error that terminated the stream.
+     *
+     * @return the error, or {@code null} if the stream has not failed
+     */
+    public Throwable getError() {
+        synchronized (deque) {
+            return error;
+        }
+    }
+
+    /**
+     * Retrieves and removes an element without waiting.
+     *
+     * @param popPoint the point from which to remove the element
+     * @return the removed element, or {@code null} if the mdeque is empty
+     */
+    public E poll(MDequeAccessPoint popPoint) {
+        final E result;
+
+        synchronized (deque) {
+            result = popPoint.pop(deque);
+        }
+
+        if (result != null) {
+            replenish();
+        }
+
+        return result;
+    }
+
+    /**
+     * Retrieves and removes an element, waiting until one is received or the
+     * stream ends.
+     *
+     * @param popPoint the point from which to remove the element
+     * @return the removed element, or {@code null} if the stream has ended and
+     *         the mdeque is empty
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public E take(MDequeAccessPoint popPoint) throws InterruptedException {
+        final E result;
+
+        synchronized (deque) {
+            while (deque.size() == 0 && !done) {
+                deque.wait();
+            }
+
+            result = popPoint.pop(deque);
+        }
+
+        if (result != null) {
+            replenish();
+        }
+
+        return result;
+    }
+
+    /** Cancels the subscription. Elements already received remain available. */
+    public void cancel() {
+        final Flow.Subscription current;
+
+        synchronized (deque) {
+            current = subscription;
+            done = true;
+
+            deque.notifyAll();
+        }
+
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    /** Requests enough elements to fill the free slots once a batch is free. */
+    private void replenish() {
+        final Flow.Subscription current;
+        final long free;
+
+        synchronized (deque) {
+            free = capacity - deque.size() - outstanding;
+
+            if (subscription == null || done || free < batchSize) {
+                return;
+            }
+
+            current = subscription;
+            outstanding += free;
+        }
+
+        // Request outside the lock since the publisher may deliver synchronously
+
+        current.request(free);
+    }
+}
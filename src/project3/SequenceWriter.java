@@ -0,0 +1,221 @@
+package project3;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * Writes sequences of integers to a byte channel in the format of
+ * {@link MDeque#toString()}: the values are enclosed in square brackets
+ * ({@code "[]"}) and separated by the characters {@code ", "} (comma and
+ * space).
+ *
+ * Values are formatted directly into a reusable byte array, two digits at a
+ * time, and the array is written to the channel whenever it fills. Apart from
+ * the iterator, writing a sequence allocates nothing, regardless of its length.
+ *
+ * This class is not thread-safe.
+ *
+ * @author Ishan Pranav
+ */
+public final class SequenceWriter {
+    private static final int MAX_INT_LENGTH = 11;
+    private static final byte[] MIN_VALUE = Integer.toString(Integer.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SEPARATOR = { ',', ' ' };
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TENS = new byte[100];
+    private static final byte[] ONES = new byte[100];
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            TENS[i] = (byte) ('0' + i / 10);
+            ONES[i] = (byte) ('0' + i % 10);
+        }
+    }
+
+    private final WritableByteChannel channel;
+    private final byte[] bytes;
+    private final ByteBuffer buffer;
+
+    private int position;
+
+    /**
+     * Initializes a new instance of the {@link SequenceWriter} class with a
+     * 64 KiB buffer.
+     *
+     * @param channel the destination channel
+     * @throws IllegalArgumentException if {@code channel} is {@code null}
+     */
+    public SequenceWriter(WritableByteChannel channel) {
+        this(channel, 1 << 16);
+    }
+
+    /**
+     * Initializes a new instance of the {@link SequenceWriter} class.
+     *
+     * @param channel    the destination channel
+     * @param bufferSize the size of the buffer, in bytes
+     * @throws IllegalArgumentException if {@code channel} is {@code null} or
+     *                                  {@code bufferSize} is too small to hold
+     *                                  one formatted value
+     */
+    public SequenceWriter(WritableByteChannel channel, int bufferSize) {
+        if (channel == null) {
+            throw new IllegalArgumentException("Value cannot be null. Argument name: channel.");
+        }
+
+        if (bufferSize < MAX_INT_LENGTH + LINE_SEPARATOR.length) {
+            throw new IllegalArgumentException("Buffer size is too small. Argument name: bufferSize.");
+        }
+
+        this.channel = channel;
+        this.bytes = new byte[bufferSize];
+        this.buffer = ByteBuffer.wrap(bytes);
+    }
+
+    /**
+     * Writes a sequence followed by a line separator and flushes the buffer.
+     *
+     * @param sequence the sequence to write
+     * @throws IOException if the channel cannot be written
+     */
+    public void writeLine(Iterable<Integer> sequence) throws IOException {
+        write(sequence);
+        write(LINE_SEPARATOR);
+        flush();
+    }
+
+    /**
+     * Writes a sequence to the buffer, flushing as it fills.
+     *
+     * @param sequence the sequence to write
+     * @throws IOException if the channel cannot be written
+     */
+    public void write(Iterable<Integer> sequence) throws IOException {
+        final Iterator<Integer> iterator = sequence.iterator();
+
+        write((byte) '[');
+
+        if (iterator.hasNext()) {
+            write(iterator.next().intValue());
+
+            while (iterator.hasNext()) {
+                write(SEPARATOR);
+                write(iterator.next().intValue());
+            }
+        }
+
+        write((byte) ']');
+    }
+
+    /**
+     * Writes the contents of the buffer to the channel.
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    public void flush() throws IOException {
+        buffer.clear().limit(position);
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        position = 0;
+    }
+
+    /**
+     * Formats an integer into the buffer.
+     *
+     * @param value the value to write
+     * @throws IOException if the channel cannot be written
+     */
+    private void write(int value) throws IOException {
+        if (bytes.length - position < MAX_INT_LENGTH) {
+            flush();
+        }
+
+        if (value == Integer.MIN_VALUE) {
+            // The magnitude of the minimum value is not representable
+
+            write(MIN_VALUE);
+
+            return;
+        }
+
+        if (value < 0) {
+            bytes[position++] = '-';
+            value = -value;
+        }
+
+        final int length = length(value);
+        int index = position + length;
+
+        // Write the digits from right to left, two at a time
+
+        while (value >= 100) {
+            final int quotient = value / 100;
+            final int remainder = value - quotient * 100;
+
+            value = quotient;
+            bytes[--index] = ONES[remainder];
+            bytes[--index] = TENS[remainder];
+        }
+
+        if (value >= 10) {
+            bytes[--index] = ONES[value];
+            bytes[--index] = TENS[value];
+        } else {
+            bytes[--index] = (byte) ('0' + value);
+        }
+
+        position += length;
+    }
+
+    /**
+     * Writes bytes into the buffer.
+     *
+     * @param source the bytes to write
+     * @throws IOException if the channel cannot be written
+     */
+    private void write(byte[] source) throws IOException {
+        if (bytes.length - position < source.length) {
+            flush();
+        }
+
+        System.arraycopy(source, 0, bytes, position, source.length);
+
+        position += source.length;
+    }
+
+    /**
+     * Writes a byte into the buffer.
+     *
+     * @param value the byte to write
+     * @throws IOException if the channel cannot be written
+     */
+    private void write(byte value) throws IOException {
+        if (position == bytes.length) {
+            flush();
+        }
+
+        bytes[position++] = value;
+    }
+
+    /**
+     * Returns the number of decimal digits in a non-negative integer.
+     *
+     * @param value the non-negative value
+     * @return the number of digits
+     */
+    private static int length(int value) {
+        int result = 1;
+
+        for (int limit = 10; result < 10 && value >= limit; limit *= 10) {
+            result++;
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,551 @@
+package project3;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded mdeque specialized for one producer thread, which inserts at the
+ * back, and one consumer thread, which removes from the front. The elements
+ * are held in a ring buffer whose capacity is a power of two.
+ *
+ * The {@code pushBack} operations may only be called by the producer thread and
+ * the {@code popFront} and {@code peekFront} operations may only be called by
+ * the consumer thread. Both sides are wait-free unless a middle operation is in
+ * progress: each side publishes its index with a single release store and
+ * re-reads the other side's index only when its cached copy says that the
+ * buffer is full (or empty). The indices and caches written by each side are
+ * kept on separate cache lines to avoid false sharing. The batched operations
+ * transfer many elements for one index publication.
+ *
+ * The middle operations ({@code pushMiddle}, {@code popMiddle}, and
+ * {@code peekMiddle}) may be called from any thread. They take a lock, wait for
+ * the producer and consumer to leave their fast paths, and shift the shorter
+ * half of the buffer, so they run in linear time. While one is in progress, the
+ * producer and consumer fall back to the same lock.
+ *
+ * The structure does not allow null as an element.
+ *
+ * @param <E> the type of elements held in this mdeque
+ *
+ * @author Ishan Pranav
+ */
+public class SpscMDeque<E> {
+    private static final VarHandle INDICES = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle ELEMENTS = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    // Each side's fields are placed 128 bytes apart in the index array, which
+    // covers adjacent-line prefetching
+
+    private static final int PADDING = 16;
+    private static final int HEAD = PADDING;
+    private static final int TAIL_CACHE = PADDING + 1;
+    private static final int CONSUMER_ACTIVE = PADDING + 2;
+    private static final int TAIL = 2 * PADDING;
+    private static final int HEAD_CACHE = 2 * PADDING + 1;
+    private static final int PRODUCER_ACTIVE = 2 * PADDING + 2;
+
+    private final long[] indices = new long[3 * PADDING];
+    private final Object[] elements;
+    private final int mask;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile boolean exclusive;
+
+    /**
+     * Creates an empty mdeque object.
+     *
+     * @param capacity the minimum number of elements the mdeque can hold; it is
+     *                 rounded up to a power of two
+     * @throws IllegalArgumentException if {@code capacity} is less than 1 or
+     *                                  greater than 2^30
+     */
+    public SpscMDeque(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Value is out of range. Argument name: capacity.");
+        }
+
+        final int length = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+
+        elements = new Object[length];
+        mask = length - 1;
+    }
+
+    /**
+     * Returns the number of elements this mdeque can hold.
+     *
+     * @return the capacity of this mdeque
+     */
+    public int capacity() {
+        return elements.length;
+    }
+
+    /**
+     * Returns the number of elements in this mdeque. The value is exact only when
+     * neither side is concurrently modifying the mdeque.
+     *
+     * @return the number of elements in this mdeque.
+     */
+    public int size() {
+        final long head = (long) INDICES.getAcquire(indices, HEAD);
+        final long tail = (long) INDICES.getAcquire(indices, TAIL);
+
+        return (int) Math.max(0, Math.min(elements.length, tail - head));
+    }
+
+    /**
+     * Inserts the specified item at the back of this mdeque. This method may only
+     * be called by the producer thread.
+     *
+     * @param item the element to add
+     * @return {@code true} if the item was added, or {@code false} if this mdeque
+     *         is full
+     * @throws IllegalArgumentException if {@code item} is {@code null}
+     */
+    public boolean pushBack(E item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Value cannot be null. Argument name: item.");
+        }
+
+        if (enter(PRODUCER_ACTIVE)) {
+            try {
+                return offer(item, null, 0, 1) == 1;
+            } finally {
+                exit(PRODUCER_ACTIVE);
+            }
+        }
+
+        lock.lock();
+
+        try {
+            return offer(item, null, 0, 1) == 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Inserts as many of the specified items as fit at the back of this mdeque,
+     * publishing them all at once. This method may only be called by the producer
+     * thread.
+     *
+     * @param items  the elements to add
+     * @param offset the index of the first element to add
+     * @param length the number of elements to add
+     * @return the number of elements added
+     * @throws IllegalArgumentException if any of the items is {@code null}
+     */
+    public int pushBack(E[] items, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (items[i] == null) {
+                throw new IllegalArgumentException("Value cannot be null. Argument name: items.");
+            }
+        }
+
+        if (enter(PRODUCER_ACTIVE)) {
+            try {
+                return offer(null, items, offset, length);
+            } finally {
+                exit(PRODUCER_ACTIVE);
+            }
+        }
+
+        lock.lock();
+
+        try {
+            return offer(null, items, offset, length);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes elements after the tail and publishes the new tail.
+     *
+     * Precondition: the caller is the producer and no middle operation is in
+     * progress.
+     *
+     * @param item   the single element to add, or {@code null} to add from
+     *               {@code items}
+     * @param items  the elements to add, if {@code item} is {@code null}
+     * @param offset the index of the first element to add
+     * @param length the number of elements to add
+     * @return the number of elements added
+     */
+    private int offer(E item, E[] items, int offset, int length) {
+        final long tail = (long) INDICES.get(indices, TAIL);
+        long head = (long) INDICES.get(indices, HEAD_CACHE);
+
+        if (elements.length - (tail - head) < length) {
+            // The cached head is stale: refresh it from the consumer
+
+            head = (long) INDICES.getAcquire(indices, HEAD);
+
+            INDICES.set(indices, HEAD_CACHE, head);
+        }
+
+        final int count = (int) Math.min(length, elements.length - (tail - head));
+
+        if (item != null) {
+            if (count == 1) {
+                ELEMENTS.set(elements, (int) tail & mask, item);
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                ELEMENTS.set(elements, (int) (tail + i) & mask, items[offset + i]);
+            }
+        }
+
+        if (count > 0) {
+            INDICES.setRelease(indices, TAIL, tail + count);
+        }
+
+        return count;
+    }
+
+    /**
+     * Retrieves the first element of this mdeque. This method may only be called
+     * by the consumer thread.
+     *
+     * @return the front of this mdeque, or {@code null} if this mdeque is empty
+     */
+    public E peekFront() {
+        if (enter(CONSUMER_ACTIVE)) {
+            try {
+                return poll(false);
+            } finally {
+                exit(CONSUMER_ACTIVE);
+            }
+        }
+
+        lock.lock();
+
+        try {
+            return poll(false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves and removes the first element of this mdeque. This method may
+     * only be called by the consumer thread.
+     *
+     * @return the front of this mdeque, or {@code null} if this mdeque is empty
+     */
+    public E popFront() {
+        if (enter(CONSUMER_ACTIVE)) {
+            try {
+                return poll(true);
+            } finally {
+                exit(CONSUMER_ACTIVE);
+            }
+        }
+
+        lock.lock();
+
+        try {
+            return poll(true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves and removes up to the specified number of elements from the front
+     * of this mdeque, releasing their slots all at once. This method may only be
+     * called by the consumer thread.
+     *
+     * @param items  the destination for the removed elements, in order from
+     *               front to back
+     * @param offset the index at which to store the first element
+     * @param length the maximum number of elements to remove
+     * @return the number of elements removed
+     */
+    public int popFront(E[] items, int offset, int length) {
+        if (enter(CONSUMER_ACTIVE)) {
+            try {
+                return poll(items, offset, length);
+            } finally {
+                exit(CONSUMER_ACTIVE);
+            }
+        }
+
+        lock.lock();
+
+        try {
+            return poll(items, offset, length);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads the element at the head and, optionally, publishes the new head.
+     *
+     * Precondition: the caller is the consumer and no middle operation is in
+     * progress.
+     *
+     * @param remove {@code true} to remove the element; otherwise, {@code false}
+     * @return the front of this mdeque, or {@code null} if this mdeque is empty
+     */
+    @SuppressWarnings("unchecked")
+    private E poll(boolean remove) {
+        final long head = (long) INDICES.get(indices, HEAD);
+
+        if (head == (long) INDICES.get(indices, TAIL_CACHE)) {
+            // The cached tail is stale: refresh it from the producer
+
+            final long tail = (long) INDICES.getAcquire(indices, TAIL);
+
+            INDICES.set(indices, TAIL_CACHE, tail);
+
+            if (head == tail) {
+                return null;
+            }
+        }
+
+        final int index = (int) head & mask;
+        final E result = (E) ELEMENTS.get(elements, index);
+
+        if (remove) {
+            ELEMENTS.set(elements, index, null);
+            INDICES.setRelease(indices, HEAD, head + 1);
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads elements from the head and publishes the new head.
+     *
+     * Precondition: the caller is the consumer and no middle operation is in
+     * progress.
+     *
+     * @param items  the destination for the removed elements
+     * @param offset the index at which to store the first element
+     * @param length the maximum number of elements to remove
+     * @return the number of elements removed
+     */
+    @SuppressWarnings("unchecked")
+    private int poll(E[] items, int offset, int length) {
+        final long head = (long) INDICES.get(indices, HEAD);
+        long tail = (long) INDICES.get(indices, TAIL_CACHE);
+
+        if (tail - head < length) {
+            // The cached tail is stale: refresh it from the producer
+
+            tail = (long) INDICES.getAcquire(indices, TAIL);
+
+            INDICES.set(indices, TAIL_CACHE, tail);
+        }
+
+        final int count = (int) Math.min(length, tail - head);
+
+        for (int i = 0; i < count; i++) {
+            final int index = (int) (head + i) & mask;
+
+            items[offset + i] = (E) ELEMENTS.get(elements, index);
+
+            ELEMENTS.set(elements, index, null);
+        }
+
+        if (count > 0) {
+            INDICES.setRelease(indices, HEAD, head + count);
+        }
+
+        return count;
+    }
+
+    /**
+     * Retrieves the middle element of this mdeque.
+     *
+     * @return the middle of this mdeque, or {@code null} if this mdeque is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E peekMiddle() {
+        beginExclusive();
+
+        try {
+            final long head = indices[HEAD];
+            final long tail = indices[TAIL];
+
+            if (head == tail) {
+                return null;
+            } else {
+                return (E) elements[(int) (head + (tail - head) / 2) & mask];
+            }
+        } finally {
+            endExclusive();
+        }
+    }
+
+    /**
+     * Inserts the specified item in the middle of this mdeque.
+     *
+     * @param item the element to add
+     * @return {@code true} if the item was added, or {@code false} if this mdeque
+     *         is full
+     * @throws IllegalArgumentException if {@code item} is {@code null}
+     */
+    public boolean pushMiddle(E item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Value cannot be null. Argument name: item.");
+        }
+
+        beginExclusive();
+
+        try {
+            long head = indices[HEAD];
+            long tail = indices[TAIL];
+
+            if (tail - head == elements.length) {
+                return false;
+            }
+
+            final long index = head + (tail - head + 1) / 2;
+
+            if (index - head < tail - index) {
+                // Shift the front half toward the front
+
+                for (long i = head; i < index; i++) {
+                    elements[(int) (i - 1) & mask] = elements[(int) i & mask];
+                }
+
+                head--;
+                elements[(int) (index - 1) & mask] = item;
+            } else {
+                // Shift the back half toward the back
+
+                for (long i = tail; i > index; i--) {
+                    elements[(int) i & mask] = elements[(int) (i - 1) & mask];
+                }
+
+                tail++;
+                elements[(int) index & mask] = item;
+            }
+
+            publish(head, tail);
+
+            return true;
+        } finally {
+            endExclusive();
+        }
+    }
+
+    /**
+     * Retrieves and removes the middle element of this mdeque.
+     *
+     * @return the middle of this mdeque, or {@code null} if this mdeque is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E popMiddle() {
+        beginExclusive();
+
+        try {
+            long head = indices[HEAD];
+            long tail = indices[TAIL];
+
+            if (head == tail) {
+                return null;
+            }
+
+            final long index = head + (tail - head) / 2;
+            final E result = (E) elements[(int) index & mask];
+
+            if (index - head < tail - 1 - index) {
+                // Shift the front half toward the back
+
+                for (long i = index; i > head; i--) {
+                    elements[(int) i & mask] = elements[(int) (i - 1) & mask];
+                }
+
+                elements[(int) head & mask] = null;
+                head++;
+            } else {
+                // Shift the back half toward the front
+
+                for (long i = index; i < tail - 1; i++) {
+                    elements[(int) i & mask] = elements[(int) (i + 1) & mask];
+                }
+
+                tail--;
+                elements[(int) tail & mask] = null;
+            }
+
+            publish(head, tail);
+
+            return result;
+        } finally {
+            endExclusive();
+        }
+    }
+
+    /**
+     * Announces that the producer or consumer is entering its fast path.
+     *
+     * @param flag the index of the side's active flag
+     * @return {@code true} if the fast path may be used, or {@code false} if a
+     *         middle operation is in progress and the lock must be used instead
+     */
+    private boolean enter(int flag) {
+        // The volatile write followed by the volatile read pairs with the same
+        // sequence in beginExclusive: at least one side observes the other
+
+        INDICES.setVolatile(indices, flag, 1L);
+
+        if (exclusive) {
+            INDICES.setRelease(indices, flag, 0L);
+
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Announces that the producer or consumer has left its fast path.
+     *
+     * @param flag the index of the side's active flag
+     */
+    private void exit(int flag) {
+        INDICES.setRelease(indices, flag, 0L);
+    }
+
+    /**
+     * Acquires the lock and waits until neither the producer nor the consumer is
+     * in its fast path.
+     */
+    private void beginExclusive() {
+        lock.lock();
+
+        exclusive = true;
+
+        while ((long) INDICES.getVolatile(indices, PRODUCER_ACTIVE) != 0
+                || (long) INDICES.getVolatile(indices, CONSUMER_ACTIVE) != 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /** Resumes the fast paths and releases the lock. */
+    private void endExclusive() {
+        exclusive = false;
+
+        lock.unlock();
+    }
+
+    /**
+     * Stores new indices after a middle operation, replacing both sides' cached
+     * copies.
+     *
+     * @param head the new head index
+     * @param tail the new tail index
+     */
+    private void publish(long head, long tail) {
+        indices[HEAD_CACHE] = head;
+        indices[TAIL_CACHE] = tail;
+
+        INDICES.setRelease(indices, HEAD, head);
+        INDICES.setRelease(indices, TAIL, tail);
+    }
+}
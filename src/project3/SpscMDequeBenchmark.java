@@ -0,0 +1,283 @@
+package project3;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Measures the throughput of {@link SpscMDeque} against
+ * {@link ConcurrentLinkedDeque} with one producer thread and one consumer
+ * thread.
+ *
+ * Each run transfers the same number of elements through three queues: an
+ * {@link SpscMDeque} one element at a time, an {@link SpscMDeque} in batches,
+ * and a {@link ConcurrentLinkedDeque} one element at a time. The throughput of
+ * every run and the median of all runs are printed in millions of elements per
+ * second.
+ *
+ * The usage is {@code SpscMDequeBenchmark [elements [runs [capacity [batch]]]]}.
+ * The producer and consumer only run on separate cores if the machine has at
+ * least two processors available to the virtual machine, for example when
+ * started with {@code taskset -c 0,1}. With a single processor, the threads
+ * alternate on one core and the results do not show the effect of cache-line
+ * padding or index caching.
+ *
+ * Limitation: the benchmark has so far only been run with a single processor,
+ * where the medians were about 50 (single), 154 (batched) and 10 (linked)
+ * million elements per second. Those figures measure the cost of an operation
+ * and of a context switch, not cross-core traffic, so the benefit of
+ * {@link SpscMDeque}'s padding and index caching over
+ * {@link ConcurrentLinkedDeque} has not yet been measured.
+ *
+ * @author Ishan Pranav
+ */
+public final class SpscMDequeBenchmark {
+    private static final int SPIN_LIMIT = 64;
+
+    /** Initializes a new instance of the {@link SpscMDequeBenchmark} class. */
+    private SpscMDequeBenchmark() {
+    }
+
+    /**
+     * Provides the main entry point for the benchmark.
+     *
+     * @param args the number of elements per run, the number of runs, the
+     *             capacity of the {@link SpscMDeque}, and the batch size
+     * @throws InterruptedException if the thread is interrupted while waiting for
+     *                              a producer
+     */
+    public static void main(String[] args) throws InterruptedException {
+        final int elements = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        final int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        final int capacity = args.length > 2 ? Integer.parseInt(args[2]) : 1 << 14;
+        final int batch = args.length > 3 ? Integer.parseInt(args[3]) : 256;
+        final int processors = Runtime.getRuntime().availableProcessors();
+        final double[] single = new double[runs];
+        final double[] batched = new double[runs];
+        final double[] linked = new double[runs];
+
+        System.out.printf("processors=%d elements=%d capacity=%d batch=%d%n", processors, elements, capacity, batch);
+
+        if (processors < 2) {
+            System.out.println("warning: one processor; producer and consumer share a core");
+        }
+
+        System.out.printf("%-4s %14s %14s %14s%n", "run", "spsc (Mops/s)", "batch (Mops/s)", "cld (Mops/s)");
+
+        for (int i = 0; i < runs; i++) {
+            single[i] = spscSingle(elements, capacity);
+            batched[i] = spscBatched(elements, capacity, batch);
+            linked[i] = concurrentLinkedDeque(elements);
+
+            System.out.printf("%-4d %14.1f %14.1f %14.1f%n", i + 1, single[i], batched[i], linked[i]);
+        }
+
+        System.out.printf("%-4s %14.1f %14.1f %14.1f%n", "p50", median(single), median(batched), median(linked));
+    }
+
+    /**
+     * Transfers elements through an {@link SpscMDeque} one at a time.
+     *
+     * @param elements the number of elements to transfer
+     * @param capacity the capacity of the mdeque
+     * @return the throughput, in millions of elements per second
+     * @throws InterruptedException if the thread is interrupted while waiting for
+     *                              the producer
+     */
+    private static double spscSingle(int elements, int capacity) throws InterruptedException {
+        final SpscMDeque<Integer> deque = new SpscMDeque<Integer>(capacity);
+        final Integer[] values = values();
+        final Thread producer = new Thread(() -> {
+            for (int i = 0; i < elements; i++) {
+                for (int spins = 0; !deque.pushBack(values[i & 255]); spins++) {
+                    backoff(spins);
+                }
+            }
+        });
+        final long start = System.nanoTime();
+        long sum = 0;
+
+        producer.start();
+
+        for (int i = 0; i < elements; i++) {
+            Integer value;
+
+            for (int spins = 0; (value = deque.popFront()) == null; spins++) {
+                backoff(spins);
+            }
+
+            sum += value;
+        }
+
+        producer.join();
+
+        return throughput(elements, start, sum);
+    }
+
+    /**
+     * Transfers elements through an {@link SpscMDeque} in batches.
+     *
+     * @param elements the number of elements to transfer
+     * @param capacity the capacity of the mdeque
+     * @param batch    the maximum number of elements per batch
+     * @return the throughput, in millions of elements per second
+     * @throws InterruptedException if the thread is interrupted while waiting for
+     *                              the producer
+     */
+    private static double spscBatched(int elements, int capacity, int batch) throws InterruptedException {
+        final SpscMDeque<Integer> deque = new SpscMDeque<Integer>(capacity);
+        final Integer[] values = values();
+        final Thread producer = new Thread(() -> {
+            final Integer[] source = new Integer[batch];
+            int sent = 0;
+
+            for (int spins = 0; sent < elements; spins++) {
+                final int length = Math.min(batch, elements - sent);
+
+                // A batch may be accepted only in part, so the next batch starts
+                // at the first element that was not sent
+
+                for (int i = 0; i < length; i++) {
+                    source[i] = values[(sent + i) & 255];
+                }
+
+                final int count = deque.pushBack(source, 0, length);
+
+                if (count == 0) {
+                    backoff(spins);
+                } else {
+                    sent += count;
+                    spins = -1;
+                }
+            }
+        });
+        final Integer[] destination = new Integer[batch];
+        final long start = System.nanoTime();
+        long sum = 0;
+        int received = 0;
+
+        producer.start();
+
+        for (int spins = 0; received < elements; spins++) {
+            final int count = deque.popFront(destination, 0, batch);
+
+            if (count == 0) {
+                backoff(spins);
+            } else {
+                for (int i = 0; i < count; i++) {
+                    sum += destination[i];
+                }
+
+                received += count;
+                spins = -1;
+            }
+        }
+
+        producer.join();
+
+        return throughput(elements, start, sum);
+    }
+
+    /**
+     * Transfers elements through a {@link ConcurrentLinkedDeque} one at a time.
+     *
+     * @param elements the number of elements to transfer
+     * @return the throughput, in millions of elements per second
+     * @throws InterruptedException if the thread is interrupted while waiting for
+     *                              the producer
+     */
+    private static double concurrentLinkedDeque(int elements) throws InterruptedException {
+        final ConcurrentLinkedDeque<Integer> deque = new ConcurrentLinkedDeque<Integer>();
+        final Integer[] values = values();
+        final Thread producer = new Thread(() -> {
+            for (int i = 0; i < elements; i++) {
+                deque.addLast(values[i & 255]);
+            }
+        });
+        final long start = System.nanoTime();
+        long sum = 0;
+
+        producer.start();
+
+        for (int i = 0; i < elements; i++) {
+            Integer value;
+
+            for (int spins = 0; (value = deque.pollFirst()) == null; spins++) {
+                backoff(spins);
+            }
+
+            sum += value;
+        }
+
+        producer.join();
+
+        return throughput(elements, start, sum);
+    }
+
+    /**
+     * Returns the boxed values sent by the producers, so that boxing is not
+     * measured.
+     *
+     * @return the values from 0 to 255
+     */
+    private static Integer[] values() {
+        final Integer[] result = new Integer[256];
+
+        for (int i = 0; i < result.length; i++) {
+            result[i] = i;
+        }
+
+        return result;
+    }
+
+    /**
+     * Waits briefly after a failed attempt: spins while the other thread is
+     * likely running on another core, then yields in case it shares this one.
+     *
+     * @param spins the number of consecutive failed attempts
+     */
+    private static void backoff(int spins) {
+        if (spins < SPIN_LIMIT) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Computes the throughput of a run and checks that every element arrived.
+     *
+     * @param elements the number of elements transferred
+     * @param start    the start time, in nanoseconds
+     * @param sum      the sum of the received values
+     * @return the throughput, in millions of elements per second
+     * @throws IllegalStateException if the sum is not the sum of the sent values
+     */
+    private static double throughput(int elements, long start, long sum) {
+        final long elapsed = System.nanoTime() - start;
+        long expected = 0;
+
+        for (int i = 0; i < elements; i++) {
+            expected += i & 255;
+        }
+
+        if (sum != expected) {
+            throw new IllegalStateException("Elements were lost or duplicated.");
+        }
+
+        return elements * 1e3 / elapsed;
+    }
+
+    /**
+     * Returns the median of the specified values.
+     *
+     * @param values the values
+     * @return the median
+     */
+    private static double median(double[] values) {
+        final double[] sorted = values.clone();
+
+        Arrays.sort(sorted);
+
+        return sorted[sorted.length / 2];
+    }
+}
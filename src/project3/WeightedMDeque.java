@@ -0,0 +1,939 @@
+package project3;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.ToLongFunction;
+
+/**
+ * An mdeque whose elements carry positive weights and whose <em>middle</em> is
+ * the weighted median rather than the element at the half-way position.
+ *
+ * The <em>middle</em> element is the first element at which the cumulative
+ * weight (from the front, including the element) exceeds half of the total
+ * weight. Inserting an element in the <em>middle</em> places it at the first
+ * position where the weight of the preceding elements is at least half of the
+ * total weight. With unit weights, these definitions coincide with those of
+ * {@link MDeque}.
+ *
+ * {@code [A:1, B:1, C:5, D:1] -- middle element is C, insert at middle would add
+ * between C and D.}
+ * {@code [A:3, B:1, C:1, D:1] -- middle element is B, insert at middle would add
+ * between A and B.}
+ *
+ * The elements form a doubly linked list, and the mdeque maintains the total
+ * weight of the elements before and after the middle. After an operation whose
+ * weight is comparable to those of its neighbors, the middle reference steps
+ * past a few elements, which takes amortized constant time. The same nodes also
+ * form a height-balanced binary tree ordered by position, in which every node
+ * records the total weight of its subtree. When the middle would have to step
+ * past more elements than the height of the tree, for example after a push or
+ * pop of an element much heavier than its neighbors, it is found instead by a
+ * descent that compares the weight on either side of each node. Each push or
+ * pop links its node into the tree next to its neighbor in the list and then
+ * updates the weights and heights on the path to the root, so every operation
+ * runs in O(log n) time in the worst case regardless of the weights. The
+ * {@code peek...} operations run in constant time.
+ *
+ * The remove operations all return null values if the mdeque is empty. The
+ * structure does not allow null as an element.
+ *
+ * @param <E> the type of elements held in this mdeque
+ *
+ * @author Ishan Pranav
+ */
+public class WeightedMDeque<E> implements Iterable<E> {
+
+    /**
+     * Provides a node for the mdeque's linked list and tree.
+     *
+     * @author Ishan Pranav
+     */
+    private class WeightedMDequeNode {
+        private E value;
+        private long weight;
+        private WeightedMDequeNode next;
+        private WeightedMDequeNode previous;
+        private WeightedMDequeNode parent;
+        private WeightedMDequeNode left;
+        private WeightedMDequeNode right;
+        private int height = 1;
+        private long sum;
+
+        /**
+         * Initializes a new instance of the {@link WeightedMDequeNode} class.
+         *
+         * @param value  The node data.
+         * @param weight The weight of the node data.
+         */
+        public WeightedMDequeNode(E value, long weight) {
+            this.value = value;
+            this.weight = weight;
+            this.sum = weight;
+        }
+
+        /** Recomputes the height and weight of the subtree from its children. */
+        public void update() {
+            height = 1 + Math.max(height(left), height(right));
+            sum = weight + sum(left) + sum(right);
+        }
+
+        /**
+         * Renders a node unusuable by clearing all outstanding references.
+         */
+        public void invalidate() {
+            value = null;
+            next = null;
+            previous = null;
+            parent = null;
+            left = null;
+            right = null;
+        }
+    }
+
+    /**
+     * Provides a sequential (front-to-back) or reverse (back-to-front) iterator
+     * for the mdeque.
+     *
+     * @author Ishan Pranav
+     */
+    private class WeightedMDequeIterator implements Iterator<E> {
+        private final int expectedVersion = version;
+        private final boolean reverse;
+
+        private WeightedMDequeNode current;
+
+        /**
+         * Initializes a new instance of the {@link WeightedMDequeIterator} class.
+         *
+         * @param reverse {@code true} to iterate from back to front; otherwise,
+         *                {@code false}
+         */
+        public WeightedMDequeIterator(boolean reverse) {
+            this.reverse = reverse;
+
+            if (reverse) {
+                current = tail;
+            } else {
+                current = head;
+            }
+        }
+
+        /**
+         * Returns {@code true} if the iteration has more elements.
+         *
+         * @return {@code true} if the iteration has more elements.
+         */
+        @Override
+        public boolean hasNext() {
+            return current != null;
+        }
+
+        /**
+         * Returns the next element in the iteration.
+         *
+         * @throws ConcurrentModificationException if the mdeque has been modified
+         *                                         concurrently with the iteration
+         * @throws NoSuchElementException          if the iteration has no more elements
+         */
+        @Override
+        public E next() {
+            if (version != expectedVersion) {
+                throw new ConcurrentModificationException("Collection was modified during iteration.");
+            }
+
+            if (current == null) {
+                throw new NoSuchElementException("Collection has no more elements.");
+            }
+
+            final WeightedMDequeNode result = current;
+
+            if (reverse) {
+                current = current.previous;
+            } else {
+                current = current.next;
+            }
+
+            return result.value;
+        }
+    }
+
+    private final ToLongFunction<? super E> weigher;
+
+    private int count;
+    private int version;
+    private long frontWeight;
+    private long backWeight;
+    private WeightedMDequeNode root;
+    private WeightedMDequeNode head;
+    private WeightedMDequeNode body;
+    private WeightedMDequeNode tail;
+
+    /**
+     * Creates an empty mdeque object in which every element added without an
+     * explicit weight has a weight of 1.
+     */
+    public WeightedMDeque() {
+        this(item -> 1);
+    }
+
+    /**
+     * Creates an empty mdeque object.
+     *
+     * @param weigher the function that computes the weight of elements added
+     *                without an explicit weight
+     * @throws IllegalArgumentException if {@code weigher} is {@code null}
+     */
+    public WeightedMDeque(ToLongFunction<? super E> weigher) {
+        if (weigher == null) {
+            throw new IllegalArgumentException("Value cannot be null. Argument name: weigher.");
+        }
+
+        this.weigher = weigher;
+    }
+
+    /**
+     * Returns the number of elements in this mdeque.
+     *
+     * @return the number of elements in this mdeque.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns the total weight of the elements in this mdeque.
+     *
+     * @return the total weight of the elements in this mdeque.
+     */
+    public long weight() {
+        return sum(root);
+    }
+
+    /**
+     * Retrieves the first element of this mdeque.
+     *
+     * @return the front of this mdeque, or {@code null} if this mdeque is empty
+     */
+    public E peekFront() {
+        if (head == null) {
+            return null;
+        } else {
+            return head.value;
+        }
+    }
+
+    /**
+     * Retrieves the middle (weighted median) element of this mdeque.
+     *
+     * @return the middle of this mdeque, or {@code null} if this mdeque is empty
+     */
+    public E peekMiddle() {
+        if (body == null) {
+            return null;
+        } else {
+            return body.value;
+        }
+    }
+
+    /**
+     * Retrieves the back element of this mdeque.
+     *
+     * @return the back of this mdeque, or {@code null} if this mdeque is empty
+     */
+    public E peekBack() {
+        if (tail == null) {
+            return null;
+        } else {
+            return tail.value;
+        }
+    }
+
+    /**
+     * Inserts the specified item, weighed by the weigher, at the front of this
+     * mdeque.
+     *
+     * @param item the element to add
+     * @throws IllegalArgumentException if {@code item} is {@code null} or its
+     *                                  weight is not positive
+     * @throws ArithmeticException      if the total weight overflows
+     */
+    public void pushFront(E item) {
+        pushFront(item, weigh(item));
+    }
+
+    /**
+     * Inserts the specified item at the front of this mdeque.
+     *
+     * @param item   the element to add
+     * @param weight the weight of the element
+     * @throws IllegalArgumentException if {@code item} is {@code null} or
+     *                                  {@code weight} is not positive
+     * @throws ArithmeticException      if the total weight overflows
+     */
+    public void pushFront(E item, long weight) {
+        final WeightedMDequeNode node = createNode(item, weight);
+
+        if (head == null) {
+            pushToEmpty(node);
+        } else {
+            insertBefore(head, node);
+
+            frontWeight += weight;
+
+            rebalance();
+        }
+    }
+
+    /**
+     * Inserts the specified item, weighed by the weigher, in the middle of this
+     * mdeque.
+     *
+     * @param item the element to add
+     * @throws IllegalArgumentException if {@code item} is {@code null} or its
+     *                                  weight is not positive
+     * @throws ArithmeticException      if the total weight overflows
+     */
+    public void pushMiddle(E item) {
+        pushMiddle(item, weigh(item));
+    }
+
+    /**
+     * Inserts the specified item in the middle of this mdeque.
+     *
+     * @param item   the element to add
+     * @param weight the weight of the element
+     * @throws IllegalArgumentException if {@code item} is {@code null} or
+     *                                  {@code weight} is not positive
+     * @throws ArithmeticException      if the total weight overflows
+     */
+    public void pushMiddle(E item, long weight) {
+        final WeightedMDequeNode node = createNode(item, weight);
+
+        if (body == null) {
+            pushToEmpty(node);
+
+            return;
+        }
+
+        if (frontWeight >= body.weight + backWeight) {
+            // The elements before the body weigh exactly half of the total, so
+            // the new element precedes the body
+
+            insertBefore(body, node);
+
+            frontWeight += weight;
+        } else {
+            // The elements up to and including the body weigh more than half of
+            // the total, so the new element follows the body
+
+            insertAfter(body, node);
+
+            backWeight += weight;
+        }
+
+        rebalance();
+    }
+
+    /**
+     * Inserts the specified item, weighed by the weigher, at the back of this
+     * mdeque.
+     *
+     * @param item the element to add
+     * @throws IllegalArgumentException if {@code item} is {@code null} or its
+     *                                  weight is not positive
+     * @throws ArithmeticException      if the total weight overflows
+     */
+    public void pushBack(E item) {
+        pushBack(item, weigh(item));
+    }
+
+    /**
+     * Inserts the specified item at the back of this mdeque.
+     *
+     * @param item   the element to add
+     * @param weight the weight of the element
+     * @throws IllegalArgumentException if {@code item} is {@code null} or
+     *                                  {@code weight} is not positive
+     * @throws ArithmeticException      if the total weight overflows
+     */
+    public void pushBack(E item, long weight) {
+        final WeightedMDequeNode node = createNode(item, weight);
+
+        if (tail == null) {
+            pushToEmpty(node);
+        } else {
+            insertAfter(tail, node);
+
+            backWeight += weight;
+
+            rebalance();
+        }
+    }
+
+    /**
+     * Retrieves and removes the first element of this mdeque.
+     *
+     * @return the front of this mdeque, or {@code null} if this mdeque is empty
+     */
+    public E popFront() {
+        if (head == null) {
+            return null;
+        } else if (head.next == null) {
+            return clear();
+        } else {
+            final WeightedMDequeNode removed = head;
+
+            if (removed == body) {
+                // The body moves to the next element, which leaves the back
+
+                body = body.next;
+                backWeight -= body.weight;
+            } else {
+                frontWeight -= removed.weight;
+            }
+
+            final E result = remove(removed);
+
+            rebalance();
+
+            return result;
+        }
+    }
+
+    /**
+     * Retrieves and removes the middle (weighted median) element of this mdeque.
+     *
+     * @return the middle of this mdeque, or {@code null} if this mdeque is empty
+     */
+    public E popMiddle() {
+        if (body == null) {
+            return null;
+        } else if (count == 1) {
+            return clear();
+        } else {
+            final WeightedMDequeNode removed = body;
+
+            if (body.next == null) {
+                body = body.previous;
+                frontWeight -= body.weight;
+            } else {
+                body = body.next;
+                backWeight -= body.weight;
+            }
+
+            final E result = remove(removed);
+
+            rebalance();
+
+            return result;
+        }
+    }
+
+    /**
+     * Retrieves and removes the back element of this mdeque.
+     *
+     * @return the back of this mdeque, or {@code null} if this mdeque is empty
+     */
+    public E popBack() {
+        if (tail == null) {
+            return null;
+        } else if (tail.previous == null) {
+            return clear();
+        } else {
+            final WeightedMDequeNode removed = tail;
+
+            if (removed == body) {
+                // The body moves to the previous element, which leaves the front
+
+                body = body.previous;
+                frontWeight -= body.weight;
+            } else {
+                backWeight -= removed.weight;
+            }
+
+            final E result = remove(removed);
+
+            rebalance();
+
+            return result;
+        }
+    }
+
+    /**
+     * Returns an iterator over the elements in this mdeque in proper sequence. The
+     * elements will be returned in order from front to back.
+     *
+     * @return an iterator over the elements in this mdeque in proper sequence
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new WeightedMDequeIterator(false);
+    }
+
+    /**
+     * Returns an iterator over the elements in this mdeque in reverse sequential
+     * order. The elements will be returned in order from back to front.
+     *
+     * @return an iterator over the elements in this mdeque in reverse sequence
+     */
+    public Iterator<E> reverseIterator() {
+        return new WeightedMDequeIterator(true);
+    }
+
+    /**
+     * Returns a string representation of this mdeque.
+     *
+     * The string representation consists of a list of the collection's elements in
+     * the order they are returned by its iterator, enclosed in square brackets
+     * ({@code "[]"}). Adjacent elements are separated by the characters
+     * {@code ", "} (comma and space).
+     *
+     * @return a string representation of this mdeque
+     */
+    @Override
+    public String toString() {
+        final StringBuilder result = new StringBuilder();
+
+        result.append('[');
+
+        for (WeightedMDequeNode current = head; current != null; current = current.next) {
+            result.append(current.value);
+
+            if (current.next != null) {
+                result.append(", ");
+            }
+        }
+
+        return result
+                .append(']')
+                .toString();
+    }
+
+    /**
+     * Computes the weight of an element using the weigher.
+     *
+     * @param item the element
+     * @return the weight of the element
+     * @throws IllegalArgumentException if {@code item} is {@code null}
+     */
+    private long weigh(E item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Value cannot be null. Argument name: item.");
+        }
+
+        return weigher.applyAsLong(item);
+    }
+
+    /**
+     * Validates an element and its weight and creates a node for them.
+     *
+     * @param item   the element to add
+     * @param weight the weight of the element
+     * @return the new node
+     * @throws IllegalArgumentException if {@code item} is {@code null} or
+     *                                  {@code weight} is not positive
+     * @throws ArithmeticException      if the total weight overflows
+     */
+    private WeightedMDequeNode createNode(E item, long weight) {
+        if (item == null) {
+            throw new IllegalArgumentException("Value cannot be null. Argument name: item.");
+        }
+
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Value must be positive. Argument name: weight.");
+        }
+
+        Math.addExact(weight(), weight);
+
+        return new WeightedMDequeNode(item, weight);
+    }
+
+    /**
+     * Inserts a node into an empty mdeque.
+     *
+     * @param node The initial node.
+     */
+    private void pushToEmpty(WeightedMDequeNode node) {
+        root = node;
+        head = node;
+        body = node;
+        tail = node;
+        frontWeight = 0;
+        backWeight = 0;
+        count = 1;
+        version++;
+    }
+
+    /**
+     * Links a node into the list and the tree immediately before another node.
+     *
+     * @param anchor the node that follows the new node
+     * @param node   the new node
+     */
+    private void insertBefore(WeightedMDequeNode anchor, WeightedMDequeNode node) {
+        // List: ... [anchor.previous] <-> [node] <-> [anchor] ...
+
+        node.previous = anchor.previous;
+        node.next = anchor;
+
+        if (anchor.previous == null) {
+            head = node;
+        } else {
+            anchor.previous.next = node;
+        }
+
+        anchor.previous = node;
+
+        // The new node becomes the left child of the anchor, or else the right
+        // child of its predecessor, which is the last node of the anchor's left
+        // subtree
+
+        if (anchor.left == null) {
+            anchor.left = node;
+            node.parent = anchor;
+        } else {
+            node.previous.right = node;
+            node.parent = node.previous;
+        }
+
+        count++;
+        version++;
+
+        retrace(node.parent);
+    }
+
+    /**
+     * Links a node into the list and the tree immediately after another node.
+     *
+     * @param anchor the node that precedes the new node
+     * @param node   the new node
+     */
+    private void insertAfter(WeightedMDequeNode anchor, WeightedMDequeNode node) {
+        // List: ... [anchor] <-> [node] <-> [anchor.next] ...
+
+        node.previous = anchor;
+        node.next = anchor.next;
+
+        if (anchor.next == null) {
+            tail = node;
+        } else {
+            anchor.next.previous = node;
+        }
+
+        anchor.next = node;
+
+        // The new node becomes the right child of the anchor, or else the left
+        // child of its successor, which is the first node of the anchor's right
+        // subtree
+
+        if (anchor.right == null) {
+            anchor.right = node;
+            node.parent = anchor;
+        } else {
+            node.next.left = node;
+            node.parent = node.next;
+        }
+
+        count++;
+        version++;
+
+        retrace(node.parent);
+    }
+
+    /**
+     * Unlinks a node from the list and the tree and returns its element. The
+     * mdeque must contain at least two elements.
+     *
+     * @param node the node to remove
+     * @return the element of the removed node
+     */
+    private E remove(WeightedMDequeNode node) {
+        final E result = node.value;
+
+        // List:
+        // ... [node.previous] <------------> [node.next] ...
+
+        if (node.previous == null) {
+            head = node.next;
+        } else {
+            node.previous.next = node.next;
+        }
+
+        if (node.next == null) {
+            tail = node.previous;
+        } else {
+            node.next.previous = node.previous;
+        }
+
+        final WeightedMDequeNode start;
+
+        if (node.left == null || node.right == null) {
+            final WeightedMDequeNode child = node.left == null ? node.right : node.left;
+
+            start = node.parent;
+
+            replace(node, child);
+        } else {
+            // Move the successor, which is the first node of the right subtree
+            // and has no left child, into the place of the removed node
+
+            final WeightedMDequeNode successor = node.next;
+
+            if (successor.parent == node) {
+                start = successor;
+            } else {
+                start = successor.parent;
+
+                replace(successor, successor.right);
+
+                successor.right = node.right;
+                successor.right.parent = successor;
+            }
+
+            replace(node, successor);
+
+            successor.left = node.left;
+            successor.left.parent = successor;
+        }
+
+        count--;
+        version++;
+
+        node.invalidate();
+        retrace(start);
+
+        return result;
+    }
+
+    /**
+     * Moves the body to the weighted median: the first node at which the
+     * cumulative weight exceeds half of the total weight.
+     *
+     * The body steps past at most as many nodes as the height of the tree; if
+     * it has not reached the median by then, the median is found by a descent
+     * from the root.
+     */
+    private void rebalance() {
+        for (int steps = height(root); steps > 0; steps--) {
+            if (body.next != null && frontWeight + body.weight <= backWeight) {
+                // The body and the nodes before it weigh at most half of the
+                // total, so shift the body backward
+
+                frontWeight += body.weight;
+                body = body.next;
+                backWeight -= body.weight;
+            } else if (body.previous != null && frontWeight > body.weight + backWeight) {
+                // The nodes before the body weigh more than half of the total,
+                // so shift the body forward
+
+                backWeight += body.weight;
+                body = body.previous;
+                frontWeight -= body.weight;
+            } else {
+                return;
+            }
+        }
+
+        locate();
+    }
+
+    /**
+     * Finds the weighted median by a descent from the root and moves the body
+     * to it.
+     *
+     * Comparisons are made as {@code before > total - before}, which cannot
+     * overflow.
+     */
+    private void locate() {
+        final long total = root.sum;
+        long before = 0;
+        WeightedMDequeNode current = root;
+
+        while (true) {
+            final long left = before + sum(current.left);
+
+            if (left > total - left) {
+                // The median is in the left subtree
+
+                current = current.left;
+            } else if (left + current.weight > total - left - current.weight) {
+                body = current;
+                frontWeight = left;
+                backWeight = total - left - current.weight;
+
+                return;
+            } else {
+                before = left + current.weight;
+                current = current.right;
+            }
+        }
+    }
+
+    /**
+     * Restores the height balance and updates the weights of every subtree on
+     * the path from a node to the root.
+     *
+     * @param node the lowest node whose subtree has changed, or {@code null}
+     */
+    private void retrace(WeightedMDequeNode node) {
+        while (node != null) {
+            node = balance(node).parent;
+        }
+    }
+
+    /**
+     * Restores the height balance of a subtree whose children differ in height by
+     * at most two, and updates its height and weight.
+     *
+     * @param subtree the root of the subtree
+     * @return the new root of the subtree
+     */
+    private WeightedMDequeNode balance(WeightedMDequeNode subtree) {
+        final int difference = height(subtree.left) - height(subtree.right);
+
+        if (difference > 1) {
+            if (height(subtree.left.left) < height(subtree.left.right)) {
+                rotateLeft(subtree.left);
+            }
+
+            return rotateRight(subtree);
+        }
+
+        if (difference < -1) {
+            if (height(subtree.right.right) < height(subtree.right.left)) {
+                rotateRight(subtree.right);
+            }
+
+            return rotateLeft(subtree);
+        }
+
+        subtree.update();
+
+        return subtree;
+    }
+
+    /**
+     * Rotates a subtree to the left.
+     *
+     * @param subtree the root of the subtree
+     * @return the new root of the subtree: the former right child
+     */
+    private WeightedMDequeNode rotateLeft(WeightedMDequeNode subtree) {
+        final WeightedMDequeNode result = subtree.right;
+
+        subtree.right = result.left;
+
+        if (result.left != null) {
+            result.left.parent = subtree;
+        }
+
+        replace(subtree, result);
+
+        result.left = subtree;
+        subtree.parent = result;
+
+        subtree.update();
+        result.update();
+
+        return result;
+    }
+
+    /**
+     * Rotates a subtree to the right.
+     *
+     * @param subtree the root of the subtree
+     * @return the new root of the subtree: the former left child
+     */
+    private WeightedMDequeNode rotateRight(WeightedMDequeNode subtree) {
+        final WeightedMDequeNode result = subtree.left;
+
+        subtree.left = result.right;
+
+        if (result.right != null) {
+            result.right.parent = subtree;
+        }
+
+        replace(subtree, result);
+
+        result.right = subtree;
+        subtree.parent = result;
+
+        subtree.update();
+        result.update();
+
+        return result;
+    }
+
+    /**
+     * Puts one subtree in the place of another under the latter's parent.
+     *
+     * @param subtree     the subtree to replace
+     * @param replacement the new subtree, or {@code null}
+     */
+    private void replace(WeightedMDequeNode subtree, WeightedMDequeNode replacement) {
+        final WeightedMDequeNode parent = subtree.parent;
+
+        if (parent == null) {
+            root = replacement;
+        } else if (parent.left == subtree) {
+            parent.left = replacement;
+        } else {
+            parent.right = replacement;
+        }
+
+        if (replacement != null) {
+            replacement.parent = parent;
+        }
+    }
+
+    /**
+     * Returns the height of a subtree.
+     *
+     * @param subtree the root of the subtree, or {@code null}
+     * @return the height of the subtree, or 0 if it is empty
+     */
+    private int height(WeightedMDequeNode subtree) {
+        if (subtree == null) {
+            return 0;
+        } else {
+            return subtree.height;
+        }
+    }
+
+    /**
+     * Returns the total weight of the elements in a subtree.
+     *
+     * @param subtree the root of the subtree, or {@code null}
+     * @return the total weight of the elements in the subtree
+     */
+    private long sum(WeightedMDequeNode subtree) {
+        if (subtree == null) {
+            return 0;
+        } else {
+            return subtree.sum;
+        }
+    }
+
+    /**
+     * Truncates the mdeque's single-element list and returns its element.
+     *
+     * @return the only element of the mdeque before clearing
+     */
+    private E clear() {
+        final E result = head.value;
+
+        head.invalidate();
+
+        root = null;
+        head = null;
+        body = null;
+        tail = null;
+        frontWeight = 0;
+        backWeight = 0;
+        count = 0;
+        version++;
+
+        return result;
+    }
+}